@@ -44,9 +44,7 @@ import java.io.StringWriter;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.AbstractList;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * Builds a {@link JsonArray} from scratch. It uses builder pattern
@@ -85,14 +83,20 @@ import java.util.List;
  * @see JsonObjectBuilder
  */
 public class JsonArrayBuilder {
-    private final List<JsonValue> valueList;
+    private static final JsonValue[] NO_VALUES = new JsonValue[0];
+
+    // The values are kept the same way as in the built array, so that
+    // build() hands over the array instead of copying it. The handed over
+    // array is full, so the next add() copies it to a larger one.
+    private JsonValue[] values;
+    private int size;
 
     /**
      * Constructs a {@code JsonArrayBuilder} that initializes an empty JSON
      * array that is being built.
      */
     public JsonArrayBuilder() {
-        this.valueList = new ArrayList<JsonValue>();
+        this.values = NO_VALUES;
     }
 
     /**
@@ -102,7 +106,7 @@ public class JsonArrayBuilder {
      * @return this array builder
      */
     public JsonArrayBuilder add(JsonValue value) {
-        valueList.add(value);
+        addValue(value);
         return this;
     }
 
@@ -114,7 +118,7 @@ public class JsonArrayBuilder {
      * @return this array builder
      */
     public JsonArrayBuilder add(String value) {
-        valueList.add(new JsonStringImpl(value));
+        addValue(new JsonStringImpl(value));
         return this;
     }
 
@@ -128,7 +132,7 @@ public class JsonArrayBuilder {
      * @see JsonNumber
      */
     public JsonArrayBuilder add(BigDecimal value) {
-        valueList.add(new JsonNumberImpl(value));
+        addValue(JsonNumberImpl.getJsonNumber(value));
         return this;
     }
 
@@ -142,7 +146,7 @@ public class JsonArrayBuilder {
      * @see JsonNumber
      */
     public JsonArrayBuilder add(BigInteger value) {
-        valueList.add(new JsonNumberImpl(value));
+        addValue(JsonNumberImpl.getJsonNumber(value));
         return this;
     }
 
@@ -156,7 +160,7 @@ public class JsonArrayBuilder {
      * @see JsonNumber
      */
     public JsonArrayBuilder add(int value) {
-        valueList.add(new JsonNumberImpl(value));
+        addValue(JsonNumberImpl.getJsonNumber(value));
         return this;
     }
 
@@ -170,7 +174,7 @@ public class JsonArrayBuilder {
      * @see JsonNumber
      */
     public JsonArrayBuilder add(long value) {
-        valueList.add(new JsonNumberImpl(value));
+        addValue(JsonNumberImpl.getJsonNumber(value));
         return this;
     }
 
@@ -185,7 +189,7 @@ public class JsonArrayBuilder {
      * @see JsonNumber
      */
     public JsonArrayBuilder add(double value) {
-        valueList.add(new JsonNumberImpl(value));
+        addValue(JsonNumberImpl.getJsonNumber(value));
         return this;
     }
 
@@ -196,7 +200,7 @@ public class JsonArrayBuilder {
      * @return this array builder
      */
     public JsonArrayBuilder add(boolean value) {
-        valueList.add(value ? JsonValue.TRUE : JsonValue.FALSE);
+        addValue(value ? JsonValue.TRUE : JsonValue.FALSE);
         return this;
     }
 
@@ -206,7 +210,7 @@ public class JsonArrayBuilder {
      * @return this array builder
      */
     public JsonArrayBuilder addNull() {
-        valueList.add(JsonValue.NULL);
+        addValue(JsonValue.NULL);
         return this;
     }
 
@@ -217,7 +221,7 @@ public class JsonArrayBuilder {
      * @return this array builder
      */
     public JsonArrayBuilder add(JsonObjectBuilder builder) {
-        valueList.add(builder.build());
+        addValue(builder.build());
         return this;
     }
 
@@ -228,30 +232,44 @@ public class JsonArrayBuilder {
      * @return this array builder
      */
     public JsonArrayBuilder add(JsonArrayBuilder builder) {
-        valueList.add(builder.build());
+        addValue(builder.build());
         return this;
     }
 
     /**
      * Returns the array that is being built
      *
+     * <p>
+     * The storage of this builder is handed over to the returned array
+     * without copying it. The builder can still be used, its storage is
+     * copied when it is changed after this call.
+     *
      * @return JSON array that is being built
      */
     public JsonArray build() {
-        ArrayList<JsonValue> snapshot = new ArrayList<JsonValue>(valueList);
-        return new JsonArrayImpl(Collections.unmodifiableList(snapshot));
+        if (values.length != size) {
+            values = Arrays.copyOf(values, size);
+        }
+        return new JsonArrayImpl(values);
+    }
+
+    private void addValue(JsonValue value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, Math.max(4, 2*size));
+        }
+        values[size++] = value;
     }
 
     private static final class JsonArrayImpl extends AbstractList<JsonValue> implements JsonArray {
-        private final List<JsonValue> valueList;    // Unmodifiable
+        private final JsonValue[] values;       // not modified
 
-        JsonArrayImpl(List<JsonValue> valueList) {
-            this.valueList = valueList;
+        JsonArrayImpl(JsonValue[] values) {
+            this.values = values;
         }
 
         @Override
         public int size() {
-            return valueList.size();
+            return values.length;
         }
 
         @Override
@@ -327,7 +345,7 @@ public class JsonArrayBuilder {
 
         @Override
         public JsonValue get(int index) {
-            return valueList.get(index);
+            return values[index];
         }
 
         @Override
@@ -340,142 +358,3 @@ public class JsonArrayBuilder {
         }
     }
 }
-
-final class JsonStringImpl implements JsonString {
-
-    private final String value;
-
-    public JsonStringImpl(String value) {
-        this.value = value;
-    }
-
-    @Override
-    public String getValue() {
-        return value;
-    }
-
-    @Override
-    public CharSequence getChars() {
-        return value;
-    }
-
-    @Override
-    public ValueType getValueType() {
-        return ValueType.STRING;
-    }
-
-    @Override
-    public int hashCode() {
-        return getValue().hashCode();
-    }
-
-    @Override
-    public boolean equals(Object obj) {
-        if (!(obj instanceof JsonString)) {
-            return false;
-        }
-        JsonString other = (JsonString)obj;
-        return getValue().equals(other.getValue());
-    }
-
-    @Override
-    public String toString() {
-        return value;
-    }
-}
-
-final class JsonNumberImpl implements JsonNumber {
-    private final BigDecimal bigDecimal;
-
-    public JsonNumberImpl(int value) {
-        bigDecimal = new BigDecimal(value);
-    }
-
-    public JsonNumberImpl(long value) {
-        bigDecimal = new BigDecimal(value);
-    }
-
-    public JsonNumberImpl(BigInteger value) {
-        bigDecimal = new BigDecimal(value);
-    }
-
-    public JsonNumberImpl(double value) {
-        //bigDecimal = new BigDecimal(value);
-        // This is the preferred way to convert double to BigDecimal
-        bigDecimal = BigDecimal.valueOf(value);
-    }
-
-    public JsonNumberImpl(BigDecimal value) {
-        this.bigDecimal = value;
-    }
-
-    @Override
-    public NumberType getNumberType() {
-        return bigDecimal.scale() == 0 ? NumberType.INTEGER : NumberType.DECIMAL;
-    }
-
-    @Override
-    public int intValue() {
-        return bigDecimal.intValue();
-    }
-
-    @Override
-    public int intValueExact() {
-        return bigDecimal.intValueExact();
-    }
-
-    @Override
-    public long longValue() {
-        return bigDecimal.longValue();
-    }
-
-    @Override
-    public long longValueExact() {
-        return bigDecimal.longValueExact();
-    }
-
-    @Override
-    public BigInteger bigIntegerValue() {
-        return bigDecimal.toBigInteger();
-    }
-
-    @Override
-    public BigInteger bigIntegerValueExact() {
-        return bigDecimal.toBigIntegerExact();
-    }
-
-    @Override
-    public double doubleValue() {
-        return bigDecimal.doubleValue();
-    }
-
-    @Override
-    public BigDecimal bigDecimalValue() {
-        return bigDecimal;
-    }
-
-    @Override
-    public ValueType getValueType() {
-        return ValueType.NUMBER;
-    }
-
-    @Override
-    public int hashCode() {
-        return bigDecimalValue().hashCode();
-    }
-
-    @Override
-    public boolean equals(Object obj) {
-        if (!(obj instanceof JsonNumber)) {
-            return false;
-        }
-        JsonNumber other = (JsonNumber)obj;
-        return bigDecimalValue().equals(other.bigDecimalValue());
-    }
-
-    @Override
-    public String toString() {
-        return bigDecimal.toString();
-    }
-}
-
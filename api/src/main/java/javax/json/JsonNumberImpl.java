@@ -0,0 +1,316 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2012 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.json;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * JsonNumber for the number values that are added to the builders. Each
+ * variant keeps the value in the narrowest field that holds it, and
+ * creates the BigDecimal only when it is asked for. The variants are equal
+ * to, and have the same hash code as, any JsonNumber whose BigDecimal
+ * value is equal.
+ *
+ * @author Jitendra Kotamraju
+ */
+abstract class JsonNumberImpl implements JsonNumber {
+    // Small integers are shared, documents repeat 0, 1 and codes like 200
+    // or 404 all the time. An int number takes 16 bytes on a 64-bit VM.
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1023;
+    private static final JsonNumber[] CACHE = new JsonNumber[CACHE_HIGH - CACHE_LOW + 1];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new JsonIntNumber(i + CACHE_LOW);
+        }
+    }
+
+    static JsonNumber getJsonNumber(int value) {
+        if (value >= CACHE_LOW && value <= CACHE_HIGH) {
+            return CACHE[value - CACHE_LOW];
+        }
+        return new JsonIntNumber(value);
+    }
+
+    static JsonNumber getJsonNumber(long value) {
+        int intValue = (int) value;
+        return intValue == value ? getJsonNumber(intValue) : new JsonLongNumber(value);
+    }
+
+    static JsonNumber getJsonNumber(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new NumberFormatException("Infinite or NaN");
+        }
+        return new JsonDoubleNumber(value);
+    }
+
+    static JsonNumber getJsonNumber(BigInteger value) {
+        return new JsonBigDecimalNumber(new BigDecimal(value));
+    }
+
+    static JsonNumber getJsonNumber(BigDecimal value) {
+        return new JsonBigDecimalNumber(value);
+    }
+
+    @Override
+    public NumberType getNumberType() {
+        return bigDecimalValue().scale() == 0 ? NumberType.INTEGER : NumberType.DECIMAL;
+    }
+
+    @Override
+    public int intValue() {
+        return bigDecimalValue().intValue();
+    }
+
+    @Override
+    public int intValueExact() {
+        return bigDecimalValue().intValueExact();
+    }
+
+    @Override
+    public long longValue() {
+        return bigDecimalValue().longValue();
+    }
+
+    @Override
+    public long longValueExact() {
+        return bigDecimalValue().longValueExact();
+    }
+
+    @Override
+    public BigInteger bigIntegerValue() {
+        return bigDecimalValue().toBigInteger();
+    }
+
+    @Override
+    public BigInteger bigIntegerValueExact() {
+        return bigDecimalValue().toBigIntegerExact();
+    }
+
+    @Override
+    public double doubleValue() {
+        return bigDecimalValue().doubleValue();
+    }
+
+    @Override
+    public ValueType getValueType() {
+        return ValueType.NUMBER;
+    }
+
+    @Override
+    public int hashCode() {
+        return bigDecimalValue().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof JsonNumber)) {
+            return false;
+        }
+        JsonNumber other = (JsonNumber)obj;
+        return bigDecimalValue().equals(other.bigDecimalValue());
+    }
+
+    @Override
+    public String toString() {
+        return bigDecimalValue().toString();
+    }
+
+    // Integral value in a long, it is BigDecimal with zero scale
+    private static abstract class JsonIntegralNumber extends JsonNumberImpl {
+
+        @Override
+        public NumberType getNumberType() {
+            return NumberType.INTEGER;
+        }
+
+        @Override
+        public int intValue() {
+            return (int) longValue();
+        }
+
+        @Override
+        public long longValueExact() {
+            return longValue();
+        }
+
+        @Override
+        public BigInteger bigIntegerValue() {
+            return BigInteger.valueOf(longValue());
+        }
+
+        @Override
+        public BigInteger bigIntegerValueExact() {
+            return BigInteger.valueOf(longValue());
+        }
+
+        @Override
+        public double doubleValue() {
+            return longValue();
+        }
+
+        @Override
+        public BigDecimal bigDecimalValue() {
+            return BigDecimal.valueOf(longValue());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof JsonIntegralNumber) {
+                return longValue() == ((JsonIntegralNumber) obj).longValue();
+            }
+            return super.equals(obj);
+        }
+
+        @Override
+        public String toString() {
+            return Long.toString(longValue());
+        }
+    }
+
+    private static final class JsonIntNumber extends JsonIntegralNumber {
+        private final int value;
+
+        JsonIntNumber(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int intValue() {
+            return value;
+        }
+
+        @Override
+        public int intValueExact() {
+            return value;
+        }
+
+        @Override
+        public long longValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return Integer.toString(value);
+        }
+    }
+
+    private static final class JsonLongNumber extends JsonIntegralNumber {
+        private final long value;
+
+        JsonLongNumber(long value) {
+            this.value = value;
+        }
+
+        @Override
+        public int intValueExact() {
+            throw new ArithmeticException("Overflow");
+        }
+
+        @Override
+        public long longValue() {
+            return value;
+        }
+    }
+
+    // The BigDecimal is BigDecimal.valueOf(value)
+    private static final class JsonDoubleNumber extends JsonNumberImpl {
+        private final double value;
+
+        JsonDoubleNumber(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public int intValue() {
+            // the BigDecimal truncates the same way for values in range
+            if (value > -0x1p31 - 1 && value < 0x1p31) {
+                return (int) value;
+            }
+            return super.intValue();
+        }
+
+        @Override
+        public long longValue() {
+            if (value >= -0x1p63 && value < 0x1p63) {
+                return (long) value;
+            }
+            return super.longValue();
+        }
+
+        @Override
+        public double doubleValue() {
+            // BigDecimal has no negative zero
+            return value == 0 ? 0.0 : value;
+        }
+
+        @Override
+        public BigDecimal bigDecimalValue() {
+            return BigDecimal.valueOf(value);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            // different doubles have different Double.toString() values,
+            // except for 0.0 and -0.0 whose BigDecimals are equal too
+            if (obj instanceof JsonDoubleNumber) {
+                return value == ((JsonDoubleNumber) obj).value;
+            }
+            return super.equals(obj);
+        }
+    }
+
+    private static final class JsonBigDecimalNumber extends JsonNumberImpl {
+        private final BigDecimal bigDecimal;
+
+        JsonBigDecimalNumber(BigDecimal value) {
+            this.bigDecimal = value;
+        }
+
+        @Override
+        public BigDecimal bigDecimalValue() {
+            return bigDecimal;
+        }
+    }
+}
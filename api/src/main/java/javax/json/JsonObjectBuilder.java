@@ -44,9 +44,10 @@ import java.io.StringWriter;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.AbstractMap;
-import java.util.Collections;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
 /**
@@ -104,14 +105,27 @@ import java.util.Set;
  * @see JsonArrayBuilder
  */
 public class JsonObjectBuilder {
-    private final Map<String, JsonValue> valueMap;
+    // objects upto this size don't have a table
+    private static final int LINEAR_SIZE = 8;
+    private static final String[] NO_NAMES = new String[0];
+    private static final JsonValue[] NO_VALUES = new JsonValue[0];
+
+    // The members are kept the same way as in the built object, so that
+    // build() hands over the arrays and the table instead of copying them.
+    // Once they are handed over, they are copied on the next change.
+    private String[] names;
+    private JsonValue[] values;
+    private int size;
+    private int[] table;            // member index + 1, 0 if free
+    private boolean shared;
 
     /**
      * Constructs a {@code JsonObjectBuilder} that initializes an empty JSON
      * object that is being built.
      */
     public JsonObjectBuilder() {
-        this.valueMap = new LinkedHashMap<String, JsonValue>();
+        this.names = NO_NAMES;
+        this.values = NO_VALUES;
     }
 
     /**
@@ -125,7 +139,7 @@ public class JsonObjectBuilder {
      * @return this object builder
      */
     public JsonObjectBuilder add(String name, JsonValue value) {
-        valueMap.put(name, value);
+        put(name, value);
         return this;
     }
 
@@ -140,7 +154,7 @@ public class JsonObjectBuilder {
      * @return this object builder
      */
     public JsonObjectBuilder add(String name, String value) {
-        valueMap.put(name, new JsonStringImpl(value));
+        put(name, new JsonStringImpl(value));
         return this;
     }
 
@@ -157,7 +171,7 @@ public class JsonObjectBuilder {
      * @see JsonNumber
      */
     public JsonObjectBuilder add(String name, BigInteger value) {
-        valueMap.put(name, new JsonNumberImpl(value));
+        put(name, JsonNumberImpl.getJsonNumber(value));
         return this;
     }
 
@@ -174,7 +188,7 @@ public class JsonObjectBuilder {
      * @see JsonNumber
      */
     public JsonObjectBuilder add(String name, BigDecimal value) {
-        valueMap.put(name, new JsonNumberImpl(value));
+        put(name, JsonNumberImpl.getJsonNumber(value));
         return this;
     }
 
@@ -191,7 +205,7 @@ public class JsonObjectBuilder {
      * @see JsonNumber
      */
     public JsonObjectBuilder add(String name, int value) {
-        valueMap.put(name, new JsonNumberImpl(value));
+        put(name, JsonNumberImpl.getJsonNumber(value));
         return this;
     }
 
@@ -208,7 +222,7 @@ public class JsonObjectBuilder {
      * @see JsonNumber
      */
     public JsonObjectBuilder add(String name, long value) {
-        valueMap.put(name, new JsonNumberImpl(value));
+        put(name, JsonNumberImpl.getJsonNumber(value));
         return this;
     }
 
@@ -226,7 +240,7 @@ public class JsonObjectBuilder {
      * @see JsonNumber
      */
     public JsonObjectBuilder add(String name, double value) {
-        valueMap.put(name, new JsonNumberImpl(value));
+        put(name, JsonNumberImpl.getJsonNumber(value));
         return this;
     }
 
@@ -241,7 +255,7 @@ public class JsonObjectBuilder {
      * @return this object builder
      */
     public JsonObjectBuilder add(String name, boolean value) {
-        valueMap.put(name, value ? JsonValue.TRUE : JsonValue.FALSE);
+        put(name, value ? JsonValue.TRUE : JsonValue.FALSE);
         return this;
     }
 
@@ -255,7 +269,7 @@ public class JsonObjectBuilder {
      * @return this object builder
      */
     public JsonObjectBuilder addNull(String name) {
-        valueMap.put(name, JsonValue.NULL);
+        put(name, JsonValue.NULL);
         return this;
     }
 
@@ -269,7 +283,7 @@ public class JsonObjectBuilder {
      * @return this object builder
      */
     public JsonObjectBuilder add(String name, JsonObjectBuilder builder) {
-        valueMap.put(name, builder.build());
+        put(name, builder.build());
         return this;
     }
 
@@ -283,7 +297,7 @@ public class JsonObjectBuilder {
      * @return this object builder
      */
     public JsonObjectBuilder add(String name, JsonArrayBuilder builder) {
-        valueMap.put(name, builder.build());
+        put(name, builder.build());
         return this;
     }
 
@@ -292,18 +306,141 @@ public class JsonObjectBuilder {
      * iteration ordering is based on the order in which name/value pairs are
      * added in this builder.
      *
+     * <p>
+     * The storage of this builder is handed over to the returned object
+     * without copying it. The builder can still be used, its storage is
+     * copied when it is changed after this call.
+     *
      * @return JSON object that is being built
      */
     public JsonObject build() {
-        Map<String, JsonValue> snapshot = new LinkedHashMap<String, JsonValue>(valueMap);
-        return new JsonObjectImpl(Collections.unmodifiableMap(snapshot));
+        if (names.length != size) {
+            names = Arrays.copyOf(names, size);
+            values = Arrays.copyOf(values, size);
+        }
+        shared = true;
+        return new JsonObjectImpl(names, values, table);
+    }
+
+    private void put(String name, JsonValue value) {
+        int i = indexOf(name, names, size, table);
+        if (i != -1) {
+            if (shared) {
+                copy(names.length);
+            }
+            values[i] = value;
+            return;
+        }
+        // the handed over storage is full, so it is always copied here
+        if (size == names.length) {
+            copy(Math.max(4, 2*size));
+        }
+        names[size] = name;
+        values[size] = value;
+        size++;
+        if (size > LINEAR_SIZE) {
+            if (table == null || 2*size > table.length) {
+                table = createTable(names, size);
+            } else {
+                insert(table, name, size - 1);
+            }
+        }
+    }
+
+    // Replaces the storage with a copy, the built objects keep the old one
+    private void copy(int capacity) {
+        names = Arrays.copyOf(names, capacity);
+        values = Arrays.copyOf(values, capacity);
+        if (shared && table != null) {
+            table = table.clone();
+        }
+        shared = false;
+    }
+
+    private static int[] createTable(String[] names, int size) {
+        int[] table = new int[Integer.highestOneBit(2*size - 1) << 1];
+        for (int i = 0; i < size; i++) {
+            insert(table, names[i], i);
+        }
+        return table;
+    }
+
+    private static void insert(int[] table, String name, int index) {
+        int mask = table.length - 1;
+        int slot = hash(name) & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = index + 1;
+    }
+
+    private static int hash(Object name) {
+        int h = name == null ? 0 : name.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean equal(Object name1, Object name2) {
+        return name1 == name2 || (name1 != null && name1.equals(name2));
+    }
+
+    // index of the member in the first size names, or -1
+    private static int indexOf(Object name, String[] names, int size, int[] table) {
+        if (table == null) {
+            for (int i = 0; i < size; i++) {
+                if (equal(name, names[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int mask = table.length - 1;
+        for (int slot = hash(name) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int i = table[slot] - 1;
+            if (equal(name, names[i])) {
+                return i;
+            }
+        }
+        return -1;
     }
 
+    /*
+     * Immutable object that keeps the names and values in parallel arrays,
+     * in the order they are added. Small objects are searched linearly,
+     * larger ones have an open addressing table of the member indexes. There
+     * are no entry objects, so a member takes two references, and two ints
+     * of the table in larger objects. The arrays are not modified after they
+     * are created, so the object can be shared by threads.
+     */
     private static final class JsonObjectImpl extends AbstractMap<String, JsonValue> implements JsonObject {
-        private final Map<String, JsonValue> valueMap;      // unmodifiable
+        private final String[] names;
+        private final JsonValue[] values;
+        private final int[] table;          // member index + 1, 0 if free
+
+        JsonObjectImpl(String[] names, JsonValue[] values, int[] table) {
+            this.names = names;
+            this.values = values;
+            this.table = table;
+        }
 
-        JsonObjectImpl(Map<String, JsonValue> valueMap) {
-            this.valueMap = valueMap;
+        // index of the member, or -1
+        private int indexOf(Object name) {
+            return JsonObjectBuilder.indexOf(name, names, names.length, table);
+        }
+
+        @Override
+        public JsonValue get(Object name) {
+            int i = indexOf(name);
+            return i == -1 ? null : values[i];
+        }
+
+        @Override
+        public boolean containsKey(Object name) {
+            return indexOf(name) != -1;
+        }
+
+        @Override
+        public int size() {
+            return names.length;
         }
 
         @Override
@@ -381,7 +518,40 @@ public class JsonObjectBuilder {
 
         @Override
         public Set<Entry<String, JsonValue>> entrySet() {
-            return valueMap.entrySet();
+            return new AbstractSet<Entry<String, JsonValue>>() {
+                @Override
+                public Iterator<Entry<String, JsonValue>> iterator() {
+                    return new Iterator<Entry<String, JsonValue>>() {
+                        private int i;
+
+                        @Override
+                        public boolean hasNext() {
+                            return i < names.length;
+                        }
+
+                        @Override
+                        public Entry<String, JsonValue> next() {
+                            if (i >= names.length) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<String, JsonValue> entry =
+                                    new SimpleImmutableEntry<String, JsonValue>(names[i], values[i]);
+                            i++;
+                            return entry;
+                        }
+
+                        @Override
+                        public void remove() {
+                            throw new UnsupportedOperationException();
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return names.length;
+                }
+            };
         }
 
         @Override
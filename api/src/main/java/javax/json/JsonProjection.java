@@ -0,0 +1,140 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.json;
+
+import javax.json.stream.JsonParser;
+import java.util.Arrays;
+
+/**
+ * The names of the members that are read from a JSON object by
+ * {@link JsonReader#readObject(JsonProjection)}, and optionally the
+ * projections of their values. A projection of a member applies to its
+ * value if it is an object, and to the object elements of its value if it
+ * is an array. A member without a projection is read entirely. The builder
+ * methods can be chained.
+ *
+ * <p>
+ * <b>For example</b>, the city of the address and the numbers of the phone
+ * numbers of a person in the JSON of {@link JsonObjectBuilder} are read
+ * using:
+ *
+ * <pre>
+ * <code>
+ * JsonProjection projection = new JsonProjection()
+ *     .add("firstName")
+ *     .add("address", new JsonProjection()
+ *         .add("city"))
+ *     .add("phoneNumber", new JsonProjection()
+ *         .add("number"));
+ * JsonObject person = jsonReader.readObject(projection);
+ * </code>
+ * </pre>
+ *
+ * @author Jitendra Kotamraju
+ */
+public class JsonProjection {
+    private String[] names = new String[4];
+    private JsonProjection[] projections = new JsonProjection[4];
+    private int size;
+
+    /**
+     * Adds a member that is read entirely. If the member is already added,
+     * its projection is removed.
+     *
+     * @param name name of the member
+     * @return this projection
+     */
+    public JsonProjection add(String name) {
+        return add(name, null);
+    }
+
+    /**
+     * Adds a member whose value is read using the given projection. If the
+     * member is already added, its projection is replaced.
+     *
+     * @param name name of the member
+     * @param projection projection of the member's value, or null if the
+     *     value is read entirely
+     * @return this projection
+     */
+    public JsonProjection add(String name, JsonProjection projection) {
+        if (name == null) {
+            throw new NullPointerException();
+        }
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) {
+                projections[i] = projection;
+                return this;
+            }
+        }
+        if (size == names.length) {
+            names = Arrays.copyOf(names, 2*size);
+            projections = Arrays.copyOf(projections, 2*size);
+        }
+        names[size] = name;
+        projections[size] = projection;
+        size++;
+        return this;
+    }
+
+    int size() {
+        return size;
+    }
+
+    String getName(int index) {
+        return names[index];
+    }
+
+    JsonProjection getProjection(int index) {
+        return projections[index];
+    }
+
+    // Returns the index of the parser's current key name, or -1 if it is
+    // not in this projection. The key's String is not created.
+    int indexOf(JsonParser parser) {
+        for (int i = 0; i < size; i++) {
+            if (parser.stringEquals(names[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
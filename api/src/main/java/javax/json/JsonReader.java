@@ -45,9 +45,10 @@ import javax.json.stream.JsonParserFactory;
 import java.io.Closeable;
 import java.io.InputStream;
 import java.io.Reader;
-import java.math.BigDecimal;
 import java.nio.charset.Charset;
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.Map;
 
 /**
@@ -160,6 +161,34 @@ public class JsonReader implements /*Auto*/Closeable {
         this.config = factory.getConfigInUse();
     }
 
+    /**
+     * Creates a JSON reader that reads the object or array which starts at
+     * the next event of a parser. The parser is left at the END_OBJECT or
+     * END_ARRAY event of the value, so that the rest of the input can still
+     * be parsed. This allows the enclosing structure of a large input to be
+     * parsed as events, and only its parts to be read as objects and
+     * arrays. For example, the object value of a member is read as follows:
+     *
+     * <pre>
+     * <code>
+     * // parser is at the KEY_NAME event of the member
+     * JsonObject value = new JsonReader(parser).readObject();
+     * </code>
+     * </pre>
+     *
+     * The values whose first event is already reported by the parser are
+     * read using {@link JsonParser#getJsonValue(Class)}. Closing this reader
+     * closes the parser. A {@link javax.json.stream.JsonFeedParser} is read
+     * the same way, the entire value needs to be fed before reading it.
+     *
+     * @param parser a parser whose next event is the start of an object or
+     *               array
+     */
+    public JsonReader(JsonParser parser) {
+        this.parser = parser;
+        this.config = Collections.<String, Object>emptyMap();
+    }
+
     /**
      * Returns a JSON array or object that is represented in
      * the input source. This method needs to be called
@@ -182,9 +211,9 @@ public class JsonReader implements /*Auto*/Closeable {
         if (parser.hasNext()) {
             JsonParser.Event e = parser.next();
             if (e == JsonParser.Event.START_ARRAY) {
-                return readArray(new JsonArrayBuilder());
+                return parser.getJsonValue(JsonArray.class);
             } else if (e == JsonParser.Event.START_OBJECT) {
-                return readObject(new JsonObjectBuilder());
+                return parser.getJsonValue(JsonObject.class);
             } else {
                 throw new JsonException("Cannot read JSON, parsing error. Parsing Event="+e);
             }
@@ -214,7 +243,44 @@ public class JsonReader implements /*Auto*/Closeable {
         if (parser.hasNext()) {
             JsonParser.Event e = parser.next();
             if (e == JsonParser.Event.START_OBJECT) {
-                return readObject(new JsonObjectBuilder());
+                return parser.getJsonValue(JsonObject.class);
+            } else if (e == JsonParser.Event.START_ARRAY) {
+                throw new JsonException("Cannot read JSON object, found JSON array");
+            } else {
+                throw new JsonException("Cannot read JSON object, parsing error. Parsing Event="+e);
+            }
+        }
+        throw new JsonException("Cannot read JSON object, possibly empty stream");
+    }
+
+    /**
+     * Returns a JSON object with only the members of the given projection,
+     * from the JSON object that is represented in the input source. The
+     * values of the other members are skipped without creating them, and
+     * the reading stops once all the members of the projection are read,
+     * so the rest of the input is neither read nor validated. This method
+     * needs to be called only once for a reader instance.
+     *
+     * @param projection the members that are read
+     * @return a Json object with the members of the projection that are
+     *     in the input
+     * @throws JsonException if a JSON object cannot
+     *     be created due to i/o error (IOException would be
+     *     cause of JsonException)
+     * @throws javax.json.stream.JsonParsingException if a JSON object cannot
+     *     be created due to incorrect representation
+     * @throws IllegalStateException if this method, readObject, readArray or
+     *     close method is already called
+     */
+    public JsonObject readObject(JsonProjection projection) {
+        if (readDone) {
+            throw new IllegalStateException("read/readObject/readArray/close method is already called.");
+        }
+        readDone = true;
+        if (parser.hasNext()) {
+            JsonParser.Event e = parser.next();
+            if (e == JsonParser.Event.START_OBJECT) {
+                return readObject(new JsonObjectBuilder(), projection, true);
             } else if (e == JsonParser.Event.START_ARRAY) {
                 throw new JsonException("Cannot read JSON object, found JSON array");
             } else {
@@ -246,7 +312,7 @@ public class JsonReader implements /*Auto*/Closeable {
         if (parser.hasNext()) {
             JsonParser.Event e = parser.next();
             if (e == JsonParser.Event.START_ARRAY) {
-                return readArray(new JsonArrayBuilder());
+                return parser.getJsonValue(JsonArray.class);
             } else if (e == JsonParser.Event.START_OBJECT) {
                 throw new JsonException("Cannot read JSON array, found JSON object");
             } else {
@@ -269,79 +335,107 @@ public class JsonReader implements /*Auto*/Closeable {
         parser.close();
     }
 
-    private JsonArray readArray(JsonArrayBuilder builder) {
+    // Reads the members of the projection, the root object returns as soon
+    // as all of them are read
+    private JsonObject readObject(JsonObjectBuilder builder, JsonProjection projection, boolean root) {
+        boolean[] seen = new boolean[projection.size()];
+        int remaining = seen.length;
+        if (remaining == 0 && root) {
+            return builder.build();
+        }
         while(parser.hasNext()) {
             JsonParser.Event e = parser.next();
+            if (e == JsonParser.Event.END_OBJECT) {
+                return builder.build();
+            }
+            // KEY_NAME
+            int index = projection.indexOf(parser);
+            if (index == -1) {
+                parser.skipValue();
+                continue;
+            }
+            String key = projection.getName(index);
+            JsonProjection child = projection.getProjection(index);
+            e = parser.next();
             switch (e) {
                 case START_ARRAY:
-                    JsonArray array = readArray(new JsonArrayBuilder());
-                    builder.add(array);
+                    JsonArray array = child == null
+                            ? parser.getJsonValue(JsonArray.class)
+                            : readArray(new JsonArrayBuilder(), child);
+                    builder.add(key, array);
                     break;
                 case START_OBJECT:
-                    JsonObject object = readObject(new JsonObjectBuilder());
-                    builder.add(object);
+                    JsonObject object = child == null
+                            ? parser.getJsonValue(JsonObject.class)
+                            : readObject(new JsonObjectBuilder(), child, false);
+                    builder.add(key, object);
                     break;
                 case VALUE_STRING:
-                    String  string = parser.getString();
-                    builder.add(string);
+                    builder.add(key, parser.getJsonValue(JsonString.class));
                     break;
                 case VALUE_NUMBER:
-                    BigDecimal bd = new BigDecimal(parser.getString());
-                    builder.add(bd);
+                    builder.add(key, parser.getJsonValue(JsonNumber.class));
                     break;
                 case VALUE_TRUE:
-                    builder.add(true);
+                    builder.add(key, true);
                     break;
                 case VALUE_FALSE:
-                    builder.add(false);
+                    builder.add(key, false);
                     break;
                 case VALUE_NULL:
-                    builder.addNull();
+                    builder.addNull(key);
                     break;
-                case END_ARRAY:
-                    return builder.build();
                 default:
                     throw new JsonException("Internal Error");
             }
+            if (!seen[index]) {
+                seen[index] = true;
+                if (--remaining == 0 && root) {
+                    return builder.build();
+                }
+            }
         }
         throw new JsonException("Internal Error");
     }
 
-    private JsonObject readObject(JsonObjectBuilder builder) {
-        String key = null;
+    // Reads an array whose object elements are read using the projection.
+    // The builders of the nested arrays are kept in a deque, so that deeply
+    // nested arrays don't use the thread stack.
+    private JsonArray readArray(JsonArrayBuilder builder, JsonProjection projection) {
+        Deque<JsonArrayBuilder> enclosing = new ArrayDeque<JsonArrayBuilder>();
         while(parser.hasNext()) {
-            JsonParser.Event e = parser .next();
+            JsonParser.Event e = parser.next();
             switch (e) {
                 case START_ARRAY:
-                    JsonArray array = readArray(new JsonArrayBuilder());
-                    builder.add(key, array);
+                    enclosing.push(builder);
+                    builder = new JsonArrayBuilder();
                     break;
                 case START_OBJECT:
-                    JsonObject object = readObject(new JsonObjectBuilder());
-                    builder.add(key, object);
-                    break;
-                case KEY_NAME:
-                    key = parser.getString();
+                    builder.add(readObject(new JsonObjectBuilder(), projection, false));
                     break;
                 case VALUE_STRING:
-                    String  string = parser.getString();
-                    builder.add(key, string);
+                    builder.add(parser.getJsonValue(JsonString.class));
                     break;
                 case VALUE_NUMBER:
-                    BigDecimal bd = new BigDecimal(parser.getString());
-                    builder.add(key, bd);
+                    builder.add(parser.getJsonValue(JsonNumber.class));
                     break;
                 case VALUE_TRUE:
-                    builder.add(key, true);
+                    builder.add(true);
                     break;
                 case VALUE_FALSE:
-                    builder.add(key, false);
+                    builder.add(false);
                     break;
                 case VALUE_NULL:
-                    builder.addNull(key);
+                    builder.addNull();
+                    break;
+                case END_ARRAY:
+                    JsonArray array = builder.build();
+                    if (enclosing.isEmpty()) {
+                        return array;
+                    }
+                    builder = enclosing.pop();
+                    builder.add(array);
                     break;
-                case END_OBJECT:
-                    return builder.build();
                 default:
                     throw new JsonException("Internal Error");
             }
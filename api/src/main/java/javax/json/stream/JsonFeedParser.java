@@ -0,0 +1,118 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package javax.json.stream;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link JsonParser} that is fed with the UTF-8 encoded bytes of JSON
+ * text as they arrive, for example from a non-blocking channel, instead
+ * of pulling them from a stream. It never blocks for input: when the
+ * input that is fed so far doesn't have the next event entirely,
+ * {@code next()} returns {@link JsonParser.Event#NEED_MORE_INPUT} and the
+ * parser resumes from the same point once more input is fed. Only the
+ * input that is not parsed yet is kept by the parser.
+ *
+ * <p>
+ * <b>For example:</b>
+ * <pre>
+ * <code>
+ * JsonFeedParser parser = Json.createParserFactory().createFeedParser();
+ * while (parser.hasNext()) {
+ *     Event event = parser.next();
+ *     if (event == Event.NEED_MORE_INPUT) {
+ *         int read = channel.read(buffer);
+ *         buffer.flip();
+ *         if (read == -1) {
+ *             parser.endOfInput();
+ *         } else {
+ *             parser.feed(buffer);
+ *         }
+ *         buffer.clear();
+ *     } else {
+ *         ...
+ *     }
+ * }
+ * </code>
+ * </pre>
+ *
+ * <p>
+ * {@link #getJsonValue(Class)}, {@link #skipChildren()} and
+ * {@link #skipValue()} read an object or array from the input that is
+ * already fed, so they are called once the entire value is fed, for
+ * example after {@link #endOfInput()}. They throw
+ * {@link JsonParsingException} if the fed input ends within the value.
+ *
+ * @author Jitendra Kotamraju
+ */
+public interface JsonFeedParser extends JsonParser {
+
+    /**
+     * Feeds the given bytes to the parser. The bytes are copied, so the
+     * array can be reused once this method returns.
+     *
+     * @param b bytes of UTF-8 encoded JSON text
+     * @param off offset of the first byte in the array
+     * @param len number of bytes
+     * @throws IllegalStateException if {@link #endOfInput()} is already
+     *      called
+     */
+    void feed(byte[] b, int off, int len);
+
+    /**
+     * Feeds the remaining bytes of the given buffer to the parser. The
+     * bytes are copied, and the buffer's position is advanced to its
+     * limit.
+     *
+     * @param buffer bytes of UTF-8 encoded JSON text
+     * @throws IllegalStateException if {@link #endOfInput()} is already
+     *      called
+     */
+    void feed(ByteBuffer buffer);
+
+    /**
+     * Indicates that all the input is fed. After this, {@code next()}
+     * doesn't return {@link JsonParser.Event#NEED_MORE_INPUT}, and
+     * incomplete JSON text is reported as a parsing error.
+     */
+    void endOfInput();
+
+}
@@ -1,7 +1,7 @@
 /*
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
  *
- * Copyright (c) 2011-2012 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2011-2013 Oracle and/or its affiliates. All rights reserved.
  *
  * The contents of this file are subject to the terms of either the GNU
  * General Public License Version 2 only ("GPL") or the Common Development
@@ -43,6 +43,7 @@ package javax.json.stream;
 import javax.json.JsonArray;
 import javax.json.JsonNumber;
 import javax.json.JsonObject;
+import javax.json.JsonValue;
 import java.io.Closeable;
 import java.io.Reader;
 import java.io.InputStream;
@@ -193,7 +194,14 @@ public interface JsonParser extends /*Auto*/Closeable {
         /**
          * Event for end of an array. This event indicates ']' is parsed.
          */
-        END_ARRAY
+        END_ARRAY,
+        /**
+         * Event of a {@link JsonFeedParser} that indicates that the input fed
+         * so far doesn't have the next event entirely. The parser stays in
+         * its current state, and {@code next()} can be called again after
+         * more input is fed.
+         */
+        NEED_MORE_INPUT
     }
 
     /**
@@ -234,6 +242,48 @@ public interface JsonParser extends /*Auto*/Closeable {
      */
     String getString();
 
+    /**
+     * Returns the same characters as {@link #getString()} without creating
+     * a {@code String}. The returned sequence may be a view of the
+     * parser's internal buffer, so it is valid only until the parser is
+     * advanced and must not be retained. This method is only called when
+     * the parser state is one of {@link Event#KEY_NAME},
+     * {@link Event#VALUE_STRING}, {@link Event#VALUE_NUMBER}.
+     *
+     * @return name, string value or number value as a char sequence
+     * @throws IllegalStateException when the parser is not in one of
+     *      KEY_NAME, VALUE_STRING, VALUE_NUMBER states
+     */
+    CharSequence getCharSequence();
+
+    /**
+     * Returns true if {@link #getString()} is equal to the given
+     * characters. It is more efficient than
+     * {@code getString().contentEquals(chars)} as no {@code String} is
+     * created. This method is only called when the parser state is one of
+     * {@link Event#KEY_NAME}, {@link Event#VALUE_STRING},
+     * {@link Event#VALUE_NUMBER}.
+     *
+     * @param chars characters to compare with
+     * @return true if the name or value has the same characters
+     * @throws IllegalStateException when the parser is not in one of
+     *      KEY_NAME, VALUE_STRING, VALUE_NUMBER states
+     */
+    boolean stringEquals(CharSequence chars);
+
+    /**
+     * Returns true if {@link #getString()} starts with the given prefix.
+     * No {@code String} is created. This method is only called when the
+     * parser state is one of {@link Event#KEY_NAME},
+     * {@link Event#VALUE_STRING}, {@link Event#VALUE_NUMBER}.
+     *
+     * @param prefix the prefix
+     * @return true if the name or value starts with the prefix
+     * @throws IllegalStateException when the parser is not in one of
+     *      KEY_NAME, VALUE_STRING, VALUE_NUMBER states
+     */
+    boolean stringStartsWith(CharSequence prefix);
+
     /**
      * Returns a JSON number type for this number.
      * A {@link BigDecimal} may be used to store the numeric value internally
@@ -308,21 +358,74 @@ public interface JsonParser extends /*Auto*/Closeable {
     BigDecimal getBigDecimalValue();
 
     /**
-     * getJsonValue(JsonObject.class) is valid in START_OBJECT state,
-     * moves cursor to END_OBJECT
-     *
-     * getJsonValue(JsonArray.class) is valid in START_ARRAY state
-     * moves cursor to END_ARRAY
+     * Returns JSON number as a {@code double}. The returned value is equal
+     * to {@code new BigDecimal(getString()).doubleValue()}, i.e. the
+     * number is correctly rounded to the nearest {@code double}. This
+     * method is only called when the parser is in
+     * {@link Event#VALUE_NUMBER} state.
      *
-     * getJsonValue(JsonString.class) is valid in VALUE_STRING state
+     * @return a double for JSON number
+     * @throws IllegalStateException when the parser state is not
+     *      VALUE_NUMBER
+     * @see java.math.BigDecimal#doubleValue()
+     */
+    double getDoubleValue();
+
+    /**
+     * Skips the contents of the current object or array. When the parser
+     * is in {@link Event#START_OBJECT} or {@link Event#START_ARRAY} state,
+     * the parser is advanced to the corresponding {@link Event#END_OBJECT}
+     * or {@link Event#END_ARRAY} state without reporting the events in
+     * between. A parser may skip the contents without fully validating
+     * them. In any other state, this method does nothing.
+     */
+    void skipChildren();
+
+    /**
+     * Skips the value of the current key. This method is only called when
+     * the parser is in {@link Event#KEY_NAME} state. The parser is
+     * advanced to the last event of the value, so that the next event is
+     * the next {@link Event#KEY_NAME} or {@link Event#END_OBJECT}. The
+     * contents of an object or array value are skipped as in
+     * {@link #skipChildren()}.
      *
-     * getJsonValue(JsonNumber.class) is valid in VALUE_NUMBER state
+     * @throws IllegalStateException when the parser state is not
+     *      KEY_NAME
+     */
+    void skipValue();
+
+    /**
+     * Returns the value that starts at the current event. In
+     * {@link Event#START_OBJECT} or {@link Event#START_ARRAY} state, the
+     * entire object or array is read, and the parser is advanced to the
+     * corresponding {@link Event#END_OBJECT} or {@link Event#END_ARRAY}
+     * state. In {@link Event#VALUE_STRING}, {@link Event#VALUE_NUMBER},
+     * {@link Event#VALUE_TRUE}, {@link Event#VALUE_FALSE} or
+     * {@link Event#VALUE_NULL} state, the current value is returned and
+     * the parser state is not changed.
      *
-     * @param clazz
-     * @return
+     * <p>
+     * For example, the records of a large array can be read one at a time:
+     * <pre>
+     * <code>
+     * while (parser.next() == Event.START_OBJECT) {
+     *     JsonObject record = parser.getJsonValue(JsonObject.class);
+     *     ...
+     * }
+     * </code>
+     * </pre>
      *
-    public <T extends JsonValue> T getJsonValue(Class<T> clazz);
+     * @param clazz the type of the value that is expected
+     * @return the value that starts at the current event
+     * @throws IllegalStateException when the parser is not at the start
+     *      of a value
+     * @throws ClassCastException if the value is not of the specified type
+     * @throws javax.json.JsonException if an i/o error occurs (IOException
+     * would be cause of JsonException)
+     * @throws JsonParsingException if incorrect JSON is encountered while
+     * reading an object or array
      */
+    <T extends JsonValue> T getJsonValue(Class<T> clazz);
 
     /**
      * Closes this parser and frees any resources associated with the
@@ -44,6 +44,8 @@ import javax.json.JsonArray;
 import javax.json.JsonObject;
 import java.io.InputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
 import java.util.Map;
 
@@ -102,6 +104,50 @@ public interface JsonParserFactory {
      */
     JsonParser createParser(InputStream in, Charset charset);
 
+    /**
+     * Creates a JSON parser from the remaining bytes of the specified
+     * buffer. The character encoding is determined as per the
+     * <a href="http://tools.ietf.org/rfc/rfc4627.txt">RFC</a>. The bytes
+     * are not copied, so the buffer must not be modified while the parser
+     * is used. The position of the buffer is not changed.
+     *
+     * @param buffer buffer from which JSON is to be read
+     * @throws javax.json.JsonException if encoding cannot be determined
+     */
+    JsonParser createParser(ByteBuffer buffer);
+
+    /**
+     * Creates a JSON parser from the remaining bytes of the specified
+     * buffers, which are read one after the other as a single input. A
+     * token may span several buffers. The bytes are not copied or
+     * concatenated, so the buffers must not be modified while the parser
+     * is used. The positions of the buffers are not changed.
+     *
+     * @param segments buffers from which JSON is to be read
+     * @throws javax.json.JsonException if encoding cannot be determined
+     */
+    JsonParser createParser(ByteBuffer[] segments);
+
+    /**
+     * Creates a JSON parser from the specified blocking channel. The
+     * character encoding is determined as per the
+     * <a href="http://tools.ietf.org/rfc/rfc4627.txt">RFC</a>. Use
+     * {@link #createFeedParser()} for the input of a non-blocking channel.
+     *
+     * @param channel channel from which JSON is to be read
+     * @throws javax.json.JsonException if encoding cannot be determined
+     *         or i/o error (IOException would be cause of JsonException)
+     */
+    JsonParser createParser(ReadableByteChannel channel);
+
+    /**
+     * Creates a JSON parser that doesn't block for input. The UTF-8
+     * encoded bytes of the JSON text are fed to the parser as they arrive.
+     *
+     * @return a parser that is fed with input
+     */
+    JsonFeedParser createFeedParser();
+
     /**
      * Creates a JSON parser from the specified JSON object.
      *
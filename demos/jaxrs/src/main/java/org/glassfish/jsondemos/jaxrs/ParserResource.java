@@ -1,7 +1,7 @@
 /*
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
  *
- * Copyright (c) 2012 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2012-2013 Oracle and/or its affiliates. All rights reserved.
  *
  * The contents of this file are subject to the terms of either the GNU
  * General Public License Version 2 only ("GPL") or the Common Development
@@ -88,11 +88,11 @@ public class ParserResource {
             while(parser.hasNext()) {
                 Event e = parser.next();
                 if (e == Event.KEY_NAME) {
-                    if (parser.getString().equals("from_user")) {
+                    if (parser.stringEquals("from_user")) {
                         parser.next();
                         ps.print(parser.getString());
                         ps.print(": ");
-                    } else if (parser.getString().equals("text")) {
+                    } else if (parser.stringEquals("text")) {
                         parser.next();
                         ps.println(parser.getString());
                         ps.println("---------");
@@ -0,0 +1,99 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A stream of the remaining bytes of a sequence of buffers. The buffers
+ * are read through duplicates, so their positions are not changed.
+ *
+ * @author Jitendra Kotamraju
+ */
+class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer[] segments;
+    private int index;
+
+    ByteBufferInputStream(ByteBuffer[] segments) {
+        this.segments = new ByteBuffer[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            this.segments[i] = segments[i].duplicate();
+        }
+    }
+
+    // Returns the current segment, null at the end of the segments
+    private ByteBuffer segment() {
+        while (index < segments.length && !segments[index].hasRemaining()) {
+            index++;
+        }
+        return index < segments.length ? segments[index] : null;
+    }
+
+    @Override
+    public int read() {
+        ByteBuffer segment = segment();
+        return segment == null ? -1 : segment.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte b[], int off, int len) {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return 0;
+        }
+        ByteBuffer segment = segment();
+        if (segment == null) {
+            return -1;
+        }
+        int length = Math.min(len, segment.remaining());
+        segment.get(b, off, length);
+        return length;
+    }
+
+    @Override
+    public int available() {
+        ByteBuffer segment = segment();
+        return segment == null ? 0 : segment.remaining();
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+/**
+ * A reusable {@code CharSequence} view of a region of a char array. The
+ * tokenizer points it at the current value in its buffer, so it is valid
+ * only until the parser moves to the next event.
+ *
+ * @author Jitendra Kotamraju
+ */
+final class CharArraySequence implements CharSequence {
+    private char[] buf;
+    private int offset;
+    private int length;
+
+    CharArraySequence set(char[] buf, int offset, int length) {
+        this.buf = buf;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index="+index+" length="+length);
+        }
+        return buf[offset+index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start="+start+" end="+end+" length="+length);
+        }
+        return new String(buf, offset+start, end-start);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buf, offset, length);
+    }
+
+    static boolean contentEquals(CharSequence chars, CharSequence other) {
+        int len = chars.length();
+        return other.length() == len && regionMatches(chars, other, len);
+    }
+
+    static boolean startsWith(CharSequence chars, CharSequence prefix) {
+        int len = prefix.length();
+        return chars.length() >= len && regionMatches(chars, prefix, len);
+    }
+
+    private static boolean regionMatches(CharSequence chars, CharSequence other, int len) {
+        for (int i = 0; i < len; i++) {
+            if (chars.charAt(i) != other.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
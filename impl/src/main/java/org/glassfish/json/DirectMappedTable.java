@@ -0,0 +1,111 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+/**
+ * A bounded table of canonical values for the strings of a document, the
+ * same instance is returned for the same characters as long as it is in
+ * the table. The table is direct-mapped: an entry is replaced when a value
+ * with different characters and the same hash slot is seen, so the memory
+ * used is bounded by the table size and the maximum length of the kept
+ * strings.
+ *
+ * @author Jitendra Kotamraju
+ */
+abstract class DirectMappedTable<T> {
+    private final T[] entries;
+    private final int mask;
+    private final int maxLength;
+
+    /**
+     * @param entries the slots of the table, its length is a power of two
+     *                returned by {@link #capacity(int)}
+     * @param maxLength longer strings are not kept in the table
+     */
+    DirectMappedTable(T[] entries, int maxLength) {
+        this.entries = entries;
+        this.mask = entries.length - 1;
+        this.maxLength = maxLength;
+    }
+
+    // the smallest power of two that is at least size and at least 2, the
+    // size is at most 2^30
+    static int capacity(int size) {
+        return Integer.highestOneBit(Math.max(size - 1, 1)) << 1;
+    }
+
+    /**
+     * Returns a value with the given characters, the same instance is
+     * returned for the same characters as long as it is in the table.
+     *
+     * @param chars characters of the value
+     * @return value whose string is equal to the given characters
+     */
+    final T get(CharSequence chars) {
+        int length = chars.length();
+        if (length > maxLength) {
+            return create(chars.toString());
+        }
+        // the same as String.hashCode()
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31*hash + chars.charAt(i);
+        }
+        int index = (hash ^ (hash >>> 16)) & mask;
+        T entry = entries[index];
+        if (entry != null) {
+            String string = toString(entry);
+            if (string.hashCode() == hash && CharArraySequence.contentEquals(string, chars)) {
+                return entry;
+            }
+        }
+        entry = create(chars.toString());
+        entries[index] = entry;
+        return entry;
+    }
+
+    // creates the value for a string that is not in the table
+    abstract T create(String string);
+
+    // the string of a value in the table
+    abstract String toString(T entry);
+
+}
@@ -0,0 +1,200 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+import java.math.BigInteger;
+
+/**
+ * Converts a decimal number, given as a significand of at most 19 digits
+ * and a power of ten, to the nearest {@code double} using the
+ * Eisel-Lemire algorithm. The result is the same as that of
+ * {@code BigDecimal.doubleValue()}. In the rare cases where the algorithm
+ * cannot decide the rounding, {@code Double.NaN} is returned and the
+ * caller falls back to {@code Double.parseDouble()}.
+ *
+ * @author Jitendra Kotamraju
+ */
+final class FastDoubleParser {
+
+    private static final int MIN_EXPONENT = -342;
+    private static final int MAX_EXPONENT = 308;
+
+    // Exactly representable powers of ten for the fast path
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // 128-bit approximations of 5^q for q in [MIN_EXPONENT, MAX_EXPONENT],
+    // normalized so that the most significant bit is set. Truncated for
+    // q >= 0 and rounded up for q < 0. Stored as high, low pairs.
+    private static final long[] POWERS_OF_FIVE = powersOfFive();
+
+    private FastDoubleParser() {
+    }
+
+    /**
+     * Returns significand * 10^exponent as the nearest double.
+     *
+     * @param negative true if the number is negative
+     * @param significand unsigned significand of at most 19 digits
+     * @param exponent power of ten
+     * @return the double value, or NaN if the value couldn't be determined
+     */
+    static double toDouble(boolean negative, long significand, int exponent) {
+        // zero is unsigned like in BigDecimal
+        if (significand == 0) {
+            return 0.0;
+        }
+        long sign = negative ? Long.MIN_VALUE : 0;
+        if (exponent < MIN_EXPONENT) {
+            return Double.longBitsToDouble(sign);
+        }
+        if (exponent > MAX_EXPONENT) {
+            return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+
+        // Both the significand and the power of ten are exact doubles, so
+        // a single multiplication or division is correctly rounded
+        if (exponent >= -22 && exponent <= 22 && significand >= 0
+                && significand <= (1L << 53)) {
+            double d = significand;
+            d = exponent < 0 ? d / POWERS_OF_TEN[-exponent] : d * POWERS_OF_TEN[exponent];
+            return negative ? -d : d;
+        }
+
+        // Multiplies the normalized significand with the 128-bit
+        // approximation of 5^exponent
+        int lz = Long.numberOfLeadingZeros(significand);
+        long w = significand << lz;
+        int index = 2 * (exponent - MIN_EXPONENT);
+        long high = multiplyHigh(w, POWERS_OF_FIVE[index]);
+        long low = w * POWERS_OF_FIVE[index];
+        if ((high & 0x1FF) == 0x1FF) {
+            // more precision is needed, uses the next 64 bits of 5^exponent
+            long secondHigh = multiplyHigh(w, POWERS_OF_FIVE[index + 1]);
+            long sum = low + secondHigh;
+            if (unsignedLess(sum, secondHigh)) {
+                high++;
+            }
+            low = sum;
+            if (low == -1L && (exponent < -27 || exponent > 55)) {
+                return Double.NaN;
+            }
+        }
+
+        int upperBit = (int) (high >>> 63);
+        int shift = upperBit + 9;
+        long mantissa = high >>> shift;
+        int power2 = (((152170 + 65536) * exponent) >> 16) + 63 + upperBit - lz + 1023;
+
+        if (power2 <= 0) {
+            // subnormal
+            if (-power2 + 1 >= 64) {
+                return Double.longBitsToDouble(sign);
+            }
+            mantissa >>>= -power2 + 1;
+            mantissa += mantissa & 1;
+            mantissa >>>= 1;
+            power2 = mantissa < (1L << 52) ? 0 : 1;
+            return Double.longBitsToDouble(sign | ((long) power2 << 52)
+                    | (mantissa & ~(1L << 52)));
+        }
+
+        // Halfway between two doubles, rounds to even
+        if ((low == 0 || low == 1) && exponent >= -4 && exponent <= 23
+                && (mantissa & 3) == 1 && (mantissa << shift) == high) {
+            mantissa &= ~1L;
+        }
+        mantissa += mantissa & 1;
+        mantissa >>>= 1;
+        if (mantissa >= (2L << 52)) {
+            mantissa = 1L << 52;
+            power2++;
+        }
+        mantissa &= ~(1L << 52);
+        if (power2 >= 0x7FF) {
+            return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        return Double.longBitsToDouble(sign | ((long) power2 << 52) | mantissa);
+    }
+
+    // High 64 bits of the unsigned 128-bit product
+    static long multiplyHigh(long x, long y) {
+        long x0 = x & 0xFFFFFFFFL;
+        long x1 = x >>> 32;
+        long y0 = y & 0xFFFFFFFFL;
+        long y1 = y >>> 32;
+        long p01 = x0 * y1;
+        long p10 = x1 * y0;
+        long middle = ((x0 * y0) >>> 32) + (p01 & 0xFFFFFFFFL) + (p10 & 0xFFFFFFFFL);
+        return x1 * y1 + (p01 >>> 32) + (p10 >>> 32) + (middle >>> 32);
+    }
+
+    private static boolean unsignedLess(long x, long y) {
+        return (x ^ Long.MIN_VALUE) < (y ^ Long.MIN_VALUE);
+    }
+
+    private static long[] powersOfFive() {
+        long[] table = new long[2 * (MAX_EXPONENT - MIN_EXPONENT + 1)];
+        BigInteger five = BigInteger.valueOf(5);
+        BigInteger mask = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+        for (int q = MIN_EXPONENT; q <= MAX_EXPONENT; q++) {
+            BigInteger power = five.pow(Math.abs(q));
+            BigInteger c;
+            if (q < 0) {
+                // 2^b / 5^-q rounded up, with at least 128 significant bits
+                int z = power.bitLength();
+                int b = q >= -27 ? z + 127 : 2 * z + 128;
+                c = BigInteger.ONE.shiftLeft(b).divide(power).add(BigInteger.ONE);
+            } else {
+                c = power;
+            }
+            int bits = c.bitLength();
+            c = bits > 128 ? c.shiftRight(bits - 128) : c.shiftLeft(128 - bits);
+            int index = 2 * (q - MIN_EXPONENT);
+            table[index] = c.shiftRight(64).longValue();
+            table[index + 1] = c.and(mask).longValue();
+        }
+        return table;
+    }
+
+}
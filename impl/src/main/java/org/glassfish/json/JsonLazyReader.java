@@ -0,0 +1,274 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+import javax.json.JsonArray;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonStructure;
+import javax.json.JsonValue;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Reads a JSON object or array that is in memory, or is read into memory,
+ * without creating its values. Only the structural index of the input is
+ * built, and the returned JsonObject and JsonArray are views that find
+ * their members, and decode their names, the first time they are accessed.
+ * A string, number or nested structure is decoded the first time it is
+ * accessed, and is cached. This suits large documents of which only a few
+ * values are used, since the values that are not accessed are never
+ * created.
+ *
+ * <p>
+ * Only the brackets of the input are checked when it is read. The other
+ * errors are reported by the views, as {@link javax.json.stream.JsonParsingException},
+ * when the part of the input that has the error is accessed. The views
+ * keep the entire input in memory, and may be shared by threads without
+ * synchronization. Input that is not UTF-8 encoded is read by a
+ * {@link JsonReader}.
+ *
+ * <p>
+ * <b>For example:</b>
+ * <pre>
+ * <code>
+ * JsonLazyReader reader = new JsonLazyReader(bytes);
+ * JsonObject object = reader.readObject();
+ * String name = object.getString("name");
+ * </code>
+ * </pre>
+ *
+ * @author Jitendra Kotamraju
+ */
+public class JsonLazyReader implements Closeable {
+    private final InputStream in;
+    private final Map<String, ?> config;
+    private final byte[] buf;
+    private final int length;
+    private boolean readDone;
+
+    /**
+     * Creates a reader from the bytes of an array. The array must not be
+     * modified while the returned values are used.
+     *
+     * @param buf the bytes of JSON text
+     */
+    public JsonLazyReader(byte[] buf) {
+        this(buf, buf.length);
+    }
+
+    /**
+     * Creates a reader from the first length bytes of an array. The array
+     * must not be modified while the returned values are used.
+     *
+     * @param buf the bytes of JSON text
+     * @param length number of bytes of JSON text
+     */
+    public JsonLazyReader(byte[] buf, int length) {
+        this.in = null;
+        this.config = Collections.<String, Object>emptyMap();
+        this.buf = buf;
+        this.length = length;
+    }
+
+    /**
+     * Creates a reader from the remaining bytes of a buffer. The bytes of
+     * a heap buffer that start at the beginning of its array are used in
+     * place, other buffers, like mapped buffers, are copied into an array.
+     * The position of the buffer is not changed.
+     *
+     * @param buffer the bytes of JSON text
+     */
+    public JsonLazyReader(ByteBuffer buffer) {
+        this.in = null;
+        this.config = Collections.<String, Object>emptyMap();
+        if (buffer.hasArray() && buffer.arrayOffset() + buffer.position() == 0) {
+            this.buf = buffer.array();
+            this.length = buffer.limit();
+        } else {
+            this.buf = new byte[buffer.remaining()];
+            this.length = buf.length;
+            buffer.duplicate().get(buf);
+        }
+    }
+
+    /**
+     * Creates a reader from a byte stream, that is entirely read into
+     * memory. The character encoding of the stream is determined as per the
+     * <a href="http://tools.ietf.org/rfc/rfc4627.txt">RFC</a>.
+     *
+     * @param in a byte stream from which JSON is to be read
+     */
+    public JsonLazyReader(InputStream in) {
+        this(in, Collections.<String, Object>emptyMap());
+    }
+
+    /**
+     * Creates a reader from a byte stream, that is entirely read into
+     * memory, with the specified map of configuration properties. The size
+     * limit applies while the stream is read. The views decode their
+     * values only when they are accessed, so the other limits apply only
+     * to input that is not UTF-8 encoded, which is read by a
+     * {@link JsonReader}.
+     *
+     * @param in a byte stream from which JSON is to be read
+     * @param config a map of provider specific properties to configure the
+     *               JSON parsers; may be empty or null
+     */
+    public JsonLazyReader(InputStream in, Map<String, ?> config) {
+        this.in = in;
+        this.config = config;
+        this.buf = null;
+        this.length = 0;
+    }
+
+    /**
+     * Returns a JSON array or object that is represented in the input
+     * source. This method needs to be called only once for a reader
+     * instance.
+     *
+     * @return a Json object or array
+     * @throws JsonException if a JSON object or array cannot
+     *     be created due to i/o error (IOException would be
+     *     cause of JsonException)
+     * @throws javax.json.stream.JsonParsingException if the brackets of
+     *     the input do not match
+     * @throws IllegalStateException if this method, readObject, readArray or
+     *     close method is already called
+     */
+    public JsonStructure read() {
+        JsonValue value = readValue();
+        if (value == null) {
+            throw new JsonException("Cannot read JSON, possibly empty stream");
+        }
+        return (JsonStructure) value;
+    }
+
+    /**
+     * Returns a JSON object that is represented in the input source. This
+     * method needs to be called only once for a reader instance.
+     *
+     * @return a Json object
+     * @throws JsonException if a JSON object cannot
+     *     be created due to i/o error (IOException would be
+     *     cause of JsonException)
+     * @throws javax.json.stream.JsonParsingException if the brackets of
+     *     the input do not match
+     * @throws IllegalStateException if this method, readObject, readArray or
+     *     close method is already called
+     */
+    public JsonObject readObject() {
+        JsonValue value = readValue();
+        if (value == null) {
+            throw new JsonException("Cannot read JSON object, possibly empty stream");
+        } else if (value instanceof JsonArray) {
+            throw new JsonException("Cannot read JSON object, found JSON array");
+        }
+        return (JsonObject) value;
+    }
+
+    /**
+     * Returns a JSON array that is represented in the input source. This
+     * method needs to be called only once for a reader instance.
+     *
+     * @return a Json array
+     * @throws JsonException if a JSON array cannot
+     *     be created due to i/o error (IOException would be
+     *     cause of JsonException)
+     * @throws javax.json.stream.JsonParsingException if the brackets of
+     *     the input do not match
+     * @throws IllegalStateException if this method, readObject, readArray or
+     *     close method is already called
+     */
+    public JsonArray readArray() {
+        JsonValue value = readValue();
+        if (value == null) {
+            throw new JsonException("Cannot read JSON array, possibly empty stream");
+        } else if (value instanceof JsonObject) {
+            throw new JsonException("Cannot read JSON array, found JSON object");
+        }
+        return (JsonArray) value;
+    }
+
+    private JsonValue readValue() {
+        if (readDone) {
+            throw new IllegalStateException("read/readObject/readArray/close method is already called.");
+        }
+        readDone = true;
+        InputStream is = in != null
+                ? new JsonParserFactoryImpl(config).limit(in)
+                : new ByteArrayInputStream(buf, 0, length);
+        UnicodeDetectingInputStream uin = new UnicodeDetectingInputStream(is);
+        if (!uin.getCharset().equals(UnicodeDetectingInputStream.UTF_8)) {
+            return new JsonReader(uin, uin.getCharset(), config).read();
+        }
+        JsonStructuralIndex index = in != null
+                ? JsonStructuralIndex.read(uin)
+                : JsonStructuralIndex.build(buf, length);
+        int bomLength = in != null ? 0 : uin.getBomLength();
+        return new LazyJsonDocument(index, bomLength).root();
+    }
+
+    /**
+     * Closes this reader and the underlying input stream, if any. The
+     * values that are already read can still be used.
+     *
+     * @throws JsonException if an i/o error occurs (IOException would be
+     * cause of JsonException)
+     */
+    @Override
+    public void close() {
+        readDone = true;
+        if (in != null) {
+            try {
+                in.close();
+            } catch (IOException ioe) {
+                throw new JsonException("I/O error while closing JSON reader", ioe);
+            }
+        }
+    }
+}
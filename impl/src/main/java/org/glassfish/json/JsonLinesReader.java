@@ -0,0 +1,513 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+import javax.json.JsonException;
+import javax.json.JsonReader;
+import javax.json.JsonStructure;
+import javax.json.stream.JsonParsingException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Reads newline-delimited JSON(JSON Lines), where every line of the UTF-8
+ * encoded input is a JSON object or array. The input is read in large
+ * batches that end at a line boundary, and the lines of the batches are
+ * parsed by concurrent tasks. A line that is not well-formed doesn't stop
+ * the reading, it is returned as a record with the error. Blank lines are
+ * skipped.
+ *
+ * <p>
+ * The records are returned in the order of the lines, or, if the order
+ * is relaxed, in the order in which the batches are parsed. The records
+ * of a batch are always in order, and every record has its line number.
+ *
+ * <p>
+ * <b>For example:</b>
+ * <pre>
+ * <code>
+ * JsonLinesReader reader = new JsonLinesReader(in, executor, 4, false);
+ * while (reader.hasNext()) {
+ *     JsonLinesReader.Record record = reader.next();
+ *     if (record.getError() == null) {
+ *         JsonStructure value = record.getValue();
+ *         ...
+ *     } else {
+ *         log(record.getLineNumber(), record.getLine(), record.getError());
+ *     }
+ * }
+ * reader.close();
+ * </code>
+ * </pre>
+ *
+ * @author Jitendra Kotamraju
+ */
+public class JsonLinesReader implements Iterator<JsonLinesReader.Record>, Closeable {
+
+    /**
+     * Approximate number of bytes of the lines that are parsed by a task
+     */
+    public static final int BATCH_SIZE = 256*1024;
+
+    private static final Charset UTF_8 = UnicodeDetectingInputStream.UTF_8;
+    private static final long LF = '\n' * 0x0101010101010101L;
+
+    private final InputStream in;
+    private final ExecutorService executor;
+    private final JsonParserFactoryImpl factory;
+    private final int parallelism;
+    private final int batchSize;
+    // the submitted batches that are not taken, in the order of the input
+    private final Queue<Future<List<Record>>> pending = new ArrayDeque<Future<List<Record>>>();
+    // null if the order is kept. Its queue holds the parsed batches until
+    // they are taken, so it is used only when the order is relaxed.
+    private final CompletionService<List<Record>> completion;
+
+    // the start of the next batch, that is after the last line boundary
+    private byte[] carry = new byte[0];
+    private int carryLength;
+    private long nextLine = 1;
+    private boolean eof;
+    private boolean bomChecked;
+
+    private Iterator<Record> records;
+
+    /**
+     * Creates a reader that parses the lines in the order of the input,
+     * with as many tasks at a time as the available processors.
+     *
+     * @param in UTF-8 encoded byte stream of JSON lines
+     * @param executor executor that runs the tasks that parse the lines
+     */
+    public JsonLinesReader(InputStream in, ExecutorService executor) {
+        this(in, executor, Runtime.getRuntime().availableProcessors(), true);
+    }
+
+    /**
+     * Creates a reader that parses the lines with at most the given number
+     * of tasks at a time, typically the number of threads of the executor.
+     *
+     * @param in UTF-8 encoded byte stream of JSON lines
+     * @param executor executor that runs the tasks that parse the lines
+     * @param parallelism maximum number of batches that are parsed at a time
+     * @param ordered true if the records are returned in the order of the
+     *     lines, false if the records of a batch are returned as soon as it
+     *     is parsed
+     */
+    public JsonLinesReader(InputStream in, ExecutorService executor, int parallelism,
+            boolean ordered) {
+        this(in, executor, parallelism, ordered, Collections.<String, Object>emptyMap());
+    }
+
+    /**
+     * Creates a reader whose lines are parsed by parsers that are
+     * configured with the specified map of configuration properties. The
+     * size limit applies to the whole input, and the other limits apply to
+     * each line.
+     *
+     * @param in UTF-8 encoded byte stream of JSON lines
+     * @param executor executor that runs the tasks that parse the lines
+     * @param parallelism maximum number of batches that are parsed at a time
+     * @param ordered true if the records are returned in the order of the
+     *     lines, false if the records of a batch are returned as soon as it
+     *     is parsed
+     * @param config a map of provider specific properties to configure the
+     *               JSON parsers; may be empty or null
+     */
+    public JsonLinesReader(InputStream in, ExecutorService executor, int parallelism,
+            boolean ordered, Map<String, ?> config) {
+        this(in, executor, parallelism, ordered, config, BATCH_SIZE);
+    }
+
+    JsonLinesReader(InputStream in, ExecutorService executor, int parallelism,
+            boolean ordered, Map<String, ?> config, int batchSize) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism="+parallelism);
+        }
+        this.factory = new JsonParserFactoryImpl(config);
+        this.in = factory.limit(in);
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+        this.completion = ordered ? null : new ExecutorCompletionService<List<Record>>(executor);
+    }
+
+    /**
+     * Returns true if there are more records.
+     *
+     * @throws JsonException if an i/o error occurs (IOException would be
+     *     cause of JsonException) or if the parsing is interrupted
+     */
+    @Override
+    public boolean hasNext() {
+        while (records == null || !records.hasNext()) {
+            submitBatches();
+            if (pending.isEmpty()) {
+                return false;
+            }
+            records = takeBatch().iterator();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the next record.
+     *
+     * @throws NoSuchElementException if there are no more records
+     * @throws JsonException if an i/o error occurs (IOException would be
+     *     cause of JsonException) or if the parsing is interrupted
+     */
+    @Override
+    public Record next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return records.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    // Keeps parallelism batches in progress, so that the tasks don't wait
+    // for the input
+    private void submitBatches() {
+        while (pending.size() < parallelism && !eof) {
+            Batch batch = readBatch();
+            if (batch == null) {
+                break;
+            }
+            pending.add(completion == null ? executor.submit(batch) : completion.submit(batch));
+        }
+    }
+
+    private List<Record> takeBatch() {
+        try {
+            Future<List<Record>> future;
+            if (completion == null) {
+                future = pending.remove();
+            } else {
+                future = completion.take();
+                pending.remove(future);
+            }
+            return future.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new JsonException("Interrupted while reading JSON lines", ie);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new JsonException("Error while reading JSON lines", cause);
+        }
+    }
+
+    /*
+     * Reads about batchSize bytes, and cuts them after the last newline.
+     * The rest is carried to the next batch, a line that is longer than
+     * the batch grows it. The input is limited by the factory, so a line
+     * without a newline doesn't grow the batch beyond the size limit.
+     * Returns null if there is no more input.
+     */
+    private Batch readBatch() {
+        byte[] buf = new byte[Math.max(batchSize, 2*carryLength)];
+        System.arraycopy(carry, 0, buf, 0, carryLength);
+        int length = carryLength;
+        try {
+            while (true) {
+                int read = in.read(buf, length, buf.length - length);
+                if (read == -1) {
+                    eof = true;
+                    break;
+                }
+                length += read;
+                if (length == buf.length) {
+                    int end = lastNewline(buf, carryLength, length);
+                    if (end != -1) {
+                        break;
+                    }
+                    byte[] temp = new byte[2*buf.length];
+                    System.arraycopy(buf, 0, temp, 0, length);
+                    buf = temp;
+                }
+            }
+        } catch (IOException ioe) {
+            throw new JsonException("I/O error while reading JSON lines", ioe);
+        }
+        int start = 0;
+        if (!bomChecked) {
+            bomChecked = true;
+            if (length >= 3 && buf[0] == (byte)0xEF && buf[1] == (byte)0xBB && buf[2] == (byte)0xBF) {
+                start = 3;
+            }
+        }
+        int end = eof ? length : lastNewline(buf, start, length);
+        if (end == -1) {
+            end = start;
+        }
+        carryLength = length - end;
+        if (carry.length < carryLength) {
+            carry = new byte[Math.max(carryLength, 2*carry.length)];
+        }
+        System.arraycopy(buf, end, carry, 0, carryLength);
+        if (start == end) {
+            return null;
+        }
+        Batch batch = new Batch(factory, buf, start, end, nextLine);
+        nextLine += countLines(buf, start, end);
+        return batch;
+    }
+
+    // Returns the position after the last newline in [start, end), or -1
+    private static int lastNewline(byte[] buf, int start, int end) {
+        for (int i = end - 1; i >= start; i--) {
+            if (buf[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    // Counts the newlines 8 bytes at a time
+    private static long countLines(byte[] buf, int start, int end) {
+        ByteBuffer words = ByteBuffer.wrap(buf).order(ByteOrder.LITTLE_ENDIAN);
+        long count = 0;
+        int i = start;
+        for (; i + 8 <= end; i += 8) {
+            count += Integer.bitCount(JsonStructuralIndex.movemask(
+                    JsonStructuralIndex.eq(words.getLong(i), LF)));
+        }
+        for (; i < end; i++) {
+            if (buf[i] == '\n') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /*
+     * Parses the lines of a batch. The line boundaries are found 8 bytes at
+     * a time, and a tokenizer is moved from one line to the next, so that
+     * the lines are parsed in place.
+     */
+    private static class Batch implements Callable<List<Record>> {
+        private final JsonParserFactoryImpl factory;
+        private final byte[] buf;
+        private final int start;
+        private final int end;
+        private final long firstLine;
+
+        Batch(JsonParserFactoryImpl factory, byte[] buf, int start, int end, long firstLine) {
+            this.factory = factory;
+            this.buf = buf;
+            this.start = start;
+            this.end = end;
+            this.firstLine = firstLine;
+        }
+
+        @Override
+        public List<Record> call() {
+            List<Record> records = new ArrayList<Record>();
+            JsonTokenizer tokenizer = new JsonTokenizer(buf);
+            factory.configure(tokenizer);
+            ByteBuffer words = ByteBuffer.wrap(buf).order(ByteOrder.LITTLE_ENDIAN);
+            long line = firstLine;
+            int lineStart = start;
+            int i = start;
+            while (lineStart < end) {
+                int lineEnd = -1;
+                for (; i + 8 <= end; i += 8) {
+                    int bits = JsonStructuralIndex.movemask(JsonStructuralIndex.eq(words.getLong(i), LF));
+                    if (bits != 0) {
+                        lineEnd = i + Integer.numberOfTrailingZeros(bits);
+                        break;
+                    }
+                }
+                if (lineEnd == -1) {
+                    for (; i < end && buf[i] != '\n'; i++) {
+                        // tail of the batch
+                    }
+                    lineEnd = i;
+                }
+                if (!isBlank(lineStart, lineEnd)) {
+                    records.add(parse(tokenizer, line, lineStart, lineEnd));
+                }
+                line++;
+                lineStart = lineEnd + 1;
+                i = lineStart;
+            }
+            return records;
+        }
+
+        private Record parse(JsonTokenizer tokenizer, long line, int lineStart, int lineEnd) {
+            tokenizer.setRange(lineStart, lineEnd);
+            try {
+                JsonStructure value = new JsonReader(factory.createConfiguredParser(tokenizer)).read();
+                JsonTokenizer.JsonToken token = tokenizer.nextToken();
+                if (token != JsonTokenizer.JsonToken.EOF) {
+                    throw new JsonParsingException("Expecting end of line, got="+token);
+                }
+                return new Record(line, value, null, null);
+            } catch (JsonException je) {
+                String text = new String(buf, lineStart, lineEnd - lineStart, UTF_8);
+                return new Record(line, null, je, text);
+            } catch (IOException ioe) {
+                // the bytes are already in memory
+                throw new JsonException("I/O error while parsing JSON line", ioe);
+            }
+        }
+
+        private boolean isBlank(int lineStart, int lineEnd) {
+            for (int i = lineStart; i < lineEnd; i++) {
+                if (!JsonTokenizer.isWhitespace(buf[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Closes this reader and the underlying input source. The batches that
+     * are being parsed are not waited for.
+     *
+     * @throws JsonException if an i/o error occurs (IOException would be
+     * cause of JsonException)
+     */
+    @Override
+    public void close() {
+        eof = true;
+        for (Future<List<Record>> future : pending) {
+            future.cancel(false);
+        }
+        pending.clear();
+        if (completion != null) {
+            // releases the batches that are parsed and not taken
+            while (completion.poll() != null) {
+                // no-op
+            }
+        }
+        records = null;
+        try {
+            in.close();
+        } catch (IOException ioe) {
+            throw new JsonException("I/O error while closing JSON lines reader", ioe);
+        }
+    }
+
+    /**
+     * A line of the input that is either read as a JSON object or array,
+     * or is not well-formed.
+     */
+    public static final class Record {
+        private final long lineNumber;
+        private final JsonStructure value;
+        private final JsonException error;
+        private final String line;
+
+        Record(long lineNumber, JsonStructure value, JsonException error, String line) {
+            this.lineNumber = lineNumber;
+            this.value = value;
+            this.error = error;
+            this.line = line;
+        }
+
+        /**
+         * Returns the line number of this record, the first line is 1.
+         *
+         * @return line number
+         */
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        /**
+         * Returns the JSON object or array of the line.
+         *
+         * @return the value, or null if the line is not well-formed
+         */
+        public JsonStructure getValue() {
+            return value;
+        }
+
+        /**
+         * Returns the error that is found while parsing the line.
+         *
+         * @return the error, or null if the line is well-formed
+         */
+        public JsonException getError() {
+            return error;
+        }
+
+        /**
+         * Returns the text of the line if it is not well-formed.
+         *
+         * @return the line without the line terminator, or null if the
+         *     line is well-formed
+         */
+        public String getLine() {
+            return line;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+import javax.json.JsonNumber;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * JsonNumber for the number values that are created by this provider. The
+ * tokenizer selects the variant from the shape of the number: integral
+ * values that fit are kept in an int or a long, and the other values keep
+ * their text, which is decoded to a BigDecimal only when needed. All the
+ * variants are equal to, and have the same hash code as, any JsonNumber
+ * whose BigDecimal value is equal, so they mix with the numbers of the
+ * builders in javax.json. The api can't share its package-private classes
+ * without public methods, so this provider keeps its own.
+ *
+ * @author Jitendra Kotamraju
+ */
+abstract class JsonNumberImpl implements JsonNumber {
+    // Small integers are shared, documents repeat 0, 1 and codes like 200
+    // or 404 all the time. An int number takes 16 bytes on a 64-bit VM.
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1023;
+    private static final JsonNumber[] CACHE = new JsonNumber[CACHE_HIGH - CACHE_LOW + 1];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new JsonIntNumber(i + CACHE_LOW);
+        }
+    }
+
+    static JsonNumber getJsonNumber(long value) {
+        if (value >= CACHE_LOW && value <= CACHE_HIGH) {
+            return CACHE[(int) value - CACHE_LOW];
+        }
+        int intValue = (int) value;
+        return intValue == value ? new JsonIntNumber(intValue) : new JsonLongNumber(value);
+    }
+
+    // text is a valid JSON number
+    static JsonNumber getJsonNumber(String text) {
+        return new JsonTextNumber(text, null);
+    }
+
+    // text is a valid JSON number, and value is its decoded value
+    static JsonNumber getJsonNumber(String text, BigDecimal value) {
+        return new JsonTextNumber(text, value);
+    }
+
+    @Override
+    public NumberType getNumberType() {
+        return bigDecimalValue().scale() == 0 ? NumberType.INTEGER : NumberType.DECIMAL;
+    }
+
+    @Override
+    public int intValue() {
+        return bigDecimalValue().intValue();
+    }
+
+    @Override
+    public int intValueExact() {
+        return bigDecimalValue().intValueExact();
+    }
+
+    @Override
+    public long longValue() {
+        return bigDecimalValue().longValue();
+    }
+
+    @Override
+    public long longValueExact() {
+        return bigDecimalValue().longValueExact();
+    }
+
+    @Override
+    public BigInteger bigIntegerValue() {
+        return bigDecimalValue().toBigInteger();
+    }
+
+    @Override
+    public BigInteger bigIntegerValueExact() {
+        return bigDecimalValue().toBigIntegerExact();
+    }
+
+    @Override
+    public double doubleValue() {
+        return bigDecimalValue().doubleValue();
+    }
+
+    @Override
+    public ValueType getValueType() {
+        return ValueType.NUMBER;
+    }
+
+    @Override
+    public int hashCode() {
+        return bigDecimalValue().hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof JsonNumber)) {
+            return false;
+        }
+        JsonNumber other = (JsonNumber)obj;
+        return bigDecimalValue().equals(other.bigDecimalValue());
+    }
+
+    @Override
+    public String toString() {
+        return bigDecimalValue().toString();
+    }
+
+    // Integral value in a long, it is BigDecimal with zero scale
+    private static abstract class JsonIntegralNumber extends JsonNumberImpl {
+
+        @Override
+        public NumberType getNumberType() {
+            return NumberType.INTEGER;
+        }
+
+        @Override
+        public int intValue() {
+            return (int) longValue();
+        }
+
+        @Override
+        public long longValueExact() {
+            return longValue();
+        }
+
+        @Override
+        public BigInteger bigIntegerValue() {
+            return BigInteger.valueOf(longValue());
+        }
+
+        @Override
+        public BigInteger bigIntegerValueExact() {
+            return BigInteger.valueOf(longValue());
+        }
+
+        @Override
+        public double doubleValue() {
+            return longValue();
+        }
+
+        @Override
+        public BigDecimal bigDecimalValue() {
+            return BigDecimal.valueOf(longValue());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof JsonIntegralNumber) {
+                return longValue() == ((JsonIntegralNumber) obj).longValue();
+            }
+            return super.equals(obj);
+        }
+
+        @Override
+        public String toString() {
+            return Long.toString(longValue());
+        }
+    }
+
+    private static final class JsonIntNumber extends JsonIntegralNumber {
+        private final int value;
+
+        JsonIntNumber(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int intValue() {
+            return value;
+        }
+
+        @Override
+        public int intValueExact() {
+            return value;
+        }
+
+        @Override
+        public long longValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return Integer.toString(value);
+        }
+    }
+
+    private static final class JsonLongNumber extends JsonIntegralNumber {
+        private final long value;
+
+        JsonLongNumber(long value) {
+            this.value = value;
+        }
+
+        @Override
+        public int intValueExact() {
+            throw new ArithmeticException("Overflow");
+        }
+
+        @Override
+        public long longValue() {
+            return value;
+        }
+    }
+
+    // Fractions, exponents and integral values that don't fit in a long
+    private static final class JsonTextNumber extends JsonNumberImpl {
+        private final String text;
+        // decoded on first use, racy but BigDecimal is immutable
+        private BigDecimal bigDecimal;
+
+        JsonTextNumber(String text, BigDecimal bigDecimal) {
+            this.text = text;
+            this.bigDecimal = bigDecimal;
+        }
+
+        @Override
+        public NumberType getNumberType() {
+            for (int i = 0; i < text.length(); i++) {
+                char ch = text.charAt(i);
+                if (ch == '.' || ch == 'e' || ch == 'E') {
+                    return super.getNumberType();
+                }
+            }
+            return NumberType.INTEGER;
+        }
+
+        @Override
+        public double doubleValue() {
+            double value = Double.parseDouble(text);
+            // -0.0 is an exact zero as BigDecimal, while underflows keep the sign
+            if (value == 0 && bigDecimalValue().signum() == 0) {
+                return 0.0;
+            }
+            return value;
+        }
+
+        @Override
+        public BigDecimal bigDecimalValue() {
+            BigDecimal value = bigDecimal;
+            if (value == null) {
+                value = new BigDecimal(text);
+                bigDecimal = value;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,344 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonException;
+import javax.json.JsonReader;
+import javax.json.JsonValue;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParsingException;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Reads a large top-level JSON array using the threads of an executor.
+ * The UTF-8 encoded input is read into memory and its structural index is
+ * built. A split pass then walks the index to find the top-level elements,
+ * and groups consecutive elements into ranges of about {@link #TASK_SIZE}
+ * bytes. The ranges are read as arrays by concurrent tasks, directly from
+ * the input bytes, and their elements are added to the result in the
+ * original order.
+ *
+ * <p>
+ * The result is the same as that of {@link JsonReader#readArray()}, and
+ * so are the types of the errors. When the input is not a well-formed
+ * sequence of top-level elements, or is not UTF-8 encoded, it is read
+ * sequentially by a {@code JsonReader}, so that the errors are reported
+ * the same way. Otherwise a parsing error in an element is reported by
+ * the task that reads its range, and the error of the first such range
+ * is thrown. The task reads only its range, so any position in the error
+ * is relative to the start of the range and not to the start of the
+ * input.
+ *
+ * <p>
+ * <b>For example:</b>
+ * <pre>
+ * <code>
+ * ExecutorService executor = Executors.newFixedThreadPool(4);
+ * JsonParallelReader reader = new JsonParallelReader(in, executor);
+ * JsonArray array = reader.readArray();
+ * reader.close();
+ * </code>
+ * </pre>
+ *
+ * @author Jitendra Kotamraju
+ */
+public class JsonParallelReader implements Closeable {
+
+    /**
+     * Approximate number of bytes of the elements that are read by a task
+     */
+    public static final int TASK_SIZE = 128*1024;
+
+    private static final byte[] OPEN = { '[' };
+    private static final byte[] CLOSE = { ']' };
+
+    private final InputStream in;
+    private final ExecutorService executor;
+    private final Map<String, ?> config;
+    private final JsonParserFactoryImpl factory;
+    private final int taskSize;
+    private boolean readDone;
+
+    /**
+     * Creates a reader from a byte stream. The character encoding of the
+     * stream is determined as per the
+     * <a href="http://tools.ietf.org/rfc/rfc4627.txt">RFC</a>.
+     *
+     * @param in a byte stream from which JSON is to be read
+     * @param executor executor that runs the tasks that read the elements
+     */
+    public JsonParallelReader(InputStream in, ExecutorService executor) {
+        this(in, executor, Collections.<String, Object>emptyMap());
+    }
+
+    /**
+     * Creates a reader from a byte stream. The parsers that read the
+     * elements are configured with the specified map of configuration
+     * properties. The size and member limits apply to the whole input,
+     * not to the elements that each parser reads.
+     *
+     * @param in a byte stream from which JSON is to be read
+     * @param executor executor that runs the tasks that read the elements
+     * @param config a map of provider specific properties to configure the
+     *               JSON parsers; may be empty or null
+     */
+    public JsonParallelReader(InputStream in, ExecutorService executor, Map<String, ?> config) {
+        this(in, executor, config, TASK_SIZE);
+    }
+
+    JsonParallelReader(InputStream in, ExecutorService executor, Map<String, ?> config,
+            int taskSize) {
+        this.in = in;
+        this.executor = executor;
+        this.config = config;
+        this.factory = new JsonParserFactoryImpl(config);
+        this.taskSize = taskSize;
+    }
+
+    /**
+     * Returns the JSON array that is represented in the input source. This
+     * method needs to be called only once for a reader instance.
+     *
+     * @return a Json array
+     * @throws JsonException if a JSON array cannot be created due to i/o
+     *     error (IOException would be cause of JsonException) or if the
+     *     reading of the elements is interrupted
+     * @throws javax.json.stream.JsonParsingException if a JSON array cannot
+     *     be created due to incorrect representation
+     * @throws IllegalStateException if this method or close method is
+     *     already called
+     */
+    public JsonArray readArray() {
+        if (readDone) {
+            throw new IllegalStateException("readArray/close method is already called.");
+        }
+        readDone = true;
+        UnicodeDetectingInputStream uin = new UnicodeDetectingInputStream(factory.limit(in));
+        if (!uin.getCharset().equals(UnicodeDetectingInputStream.UTF_8)) {
+            return new JsonReader(uin, uin.getCharset(), config).readArray();
+        }
+        JsonStructuralIndex index = JsonStructuralIndex.read(uin);
+        int[] ranges = split(index, taskSize);
+        if (ranges == null) {
+            InputStream bin = new ByteArrayInputStream(index.buf, 0, index.length);
+            return new JsonReader(bin, UnicodeDetectingInputStream.UTF_8, config).readArray();
+        }
+        long maxMembers = factory.getMaxMembers();
+        if (maxMembers != Long.MAX_VALUE && members(index) > maxMembers) {
+            throw new JsonParsingException("Number of members is more than the limit of "+maxMembers);
+        }
+
+        List<Future<JsonArray>> futures = new ArrayList<Future<JsonArray>>(ranges.length/2);
+        try {
+            for (int i = 0; i < ranges.length; i += 2) {
+                futures.add(executor.submit(new ReadTask(index.buf, ranges[i], ranges[i+1])));
+            }
+            JsonArrayBuilder builder = new JsonArrayBuilder();
+            for (Future<JsonArray> future : futures) {
+                for (JsonValue value : future.get()) {
+                    builder.add(value);
+                }
+            }
+            return builder.build();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new JsonException("Interrupted while reading JSON array", ie);
+        } catch (ExecutionException ee) {
+            Throwable cause = ee.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new JsonException("Error while reading JSON array", cause);
+        } finally {
+            for (Future<JsonArray> future : futures) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    /*
+     * Returns the start and end offsets of the element ranges, or null if
+     * the input is not an array of non-empty elements. The brackets of the
+     * nested values are counted, and a range ends at a top-level comma once
+     * it is larger than taskSize. An empty array has no ranges.
+     */
+    static int[] split(JsonStructuralIndex index, int taskSize) {
+        byte[] buf = index.buf;
+        int[] positions = index.positions;
+        int size = index.size;
+        if (size == 0 || buf[positions[0]] != '[') {
+            return null;
+        }
+        int[] ranges = new int[16];
+        int count = 0;
+        int start = positions[0] + 1;
+        int depth = 1;
+        boolean expectValue = true;
+        for (int i = 1; i < size; i++) {
+            int p = positions[i];
+            int b = buf[p];
+            if (depth == 1) {
+                if (expectValue) {
+                    if (b == ',' || b == ':' || b == '}' || (b == ']' && i != 1)) {
+                        return null;
+                    }
+                    expectValue = false;
+                } else if (b == ',') {
+                    expectValue = true;
+                    if (p - start >= taskSize) {
+                        if (count + 2 > ranges.length) {
+                            ranges = Arrays.copyOf(ranges, 2*ranges.length);
+                        }
+                        ranges[count++] = start;
+                        ranges[count++] = p;
+                        start = p + 1;
+                    }
+                    continue;
+                }
+            }
+            if (b == '{' || b == '[') {
+                depth++;
+            } else if (b == '}' || b == ']') {
+                if (--depth == 0) {
+                    if (b != ']') {
+                        return null;
+                    }
+                    if (i == 1) {
+                        return new int[0];
+                    }
+                    int[] result = new int[count + 2];
+                    System.arraycopy(ranges, 0, result, 0, count);
+                    result[count] = start;
+                    result[count+1] = p;
+                    return result;
+                }
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Returns the number of object members and array elements in the
+     * input, as counted by the limit of a parser. The ranges are read by
+     * separate parsers, so the limit is checked for the whole input here.
+     * A non-empty object or array has one more member than commas.
+     */
+    static long members(JsonStructuralIndex index) {
+        byte[] buf = index.buf;
+        int[] positions = index.positions;
+        int size = index.size;
+        long members = 0;
+        for (int i = 0; i < size; i++) {
+            int b = buf[positions[i]];
+            if (b == ',') {
+                members++;
+            } else if ((b == '{' || b == '[') && i + 1 < size) {
+                int next = buf[positions[i+1]];
+                if (next != '}' && next != ']') {
+                    members++;
+                }
+            }
+        }
+        return members;
+    }
+
+    /*
+     * Reads the elements of a range as an array. The range is read between
+     * the brackets of separate buffers, so it is neither copied nor
+     * modified. The parsers are created by the same factory, so the
+     * provider is not looked up for every range.
+     */
+    private class ReadTask implements Callable<JsonArray> {
+        private final byte[] buf;
+        private final int start;
+        private final int end;
+
+        ReadTask(byte[] buf, int start, int end) {
+            this.buf = buf;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public JsonArray call() {
+            ByteBuffer[] segments = {
+                ByteBuffer.wrap(OPEN), ByteBuffer.wrap(buf, start, end - start), ByteBuffer.wrap(CLOSE)
+            };
+            JsonParser parser = factory.createParser(segments);
+            parser.next();
+            return parser.getJsonValue(JsonArray.class);
+        }
+    }
+
+    /**
+     * Closes this reader and the underlying input source.
+     *
+     * @throws JsonException if an i/o error occurs (IOException would be
+     * cause of JsonException)
+     */
+    @Override
+    public void close() {
+        readDone = true;
+        try {
+            in.close();
+        } catch (IOException ioe) {
+            throw new JsonException("I/O error while closing JSON reader", ioe);
+        }
+    }
+}
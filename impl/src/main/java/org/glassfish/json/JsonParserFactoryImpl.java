@@ -1,7 +1,7 @@
 /*
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
  *
- * Copyright (c) 2012 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2012-2013 Oracle and/or its affiliates. All rights reserved.
  *
  * The contents of this file are subject to the terms of either the GNU
  * General Public License Version 2 only ("GPL") or the Common Development
@@ -42,33 +42,279 @@ package org.glassfish.json;
 
 import javax.json.JsonArray;
 import javax.json.JsonObject;
+import javax.json.stream.JsonFeedParser;
 import javax.json.stream.JsonParserFactory;
 import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParsingException;
+import javax.json.JsonException;
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
  * @author Jitendra Kotamraju
  */
 public class JsonParserFactoryImpl implements JsonParserFactory {
-    private final Map<String, ?> config = Collections.emptyMap();
+
+    /**
+     * Configuration property to parse UTF-8 encoded byte streams by first
+     * reading the entire stream and building a structural index of it. This
+     * is faster for large documents, but the whole document is kept in
+     * memory. The value of the property could be anything.
+     */
+    public static final String STRUCTURAL_INDEX = "org.glassfish.json.JsonParserFactoryImpl.structuralIndex";
+
+    /**
+     * Configuration property for the number of entries in the table that
+     * a parser uses to return the same String instance for repeated key
+     * names. The value is an {@code Integer} from 0 to 1048576, zero
+     * disables the table. The default size is 512.
+     */
+    public static final String KEY_TABLE_SIZE = "org.glassfish.json.JsonParserFactoryImpl.keyTableSize";
+
+    /**
+     * Configuration property for the number of entries in the table that
+     * a parser uses to return the same JsonString instance for repeated
+     * short string values, such as status names or currency codes. The
+     * value is an {@code Integer} from 0 to 1048576, the table is not used
+     * by default.
+     */
+    public static final String VALUE_TABLE_SIZE = "org.glassfish.json.JsonParserFactoryImpl.valueTableSize";
+
+    /**
+     * Configuration property to read a sequence of JSON texts with one
+     * parser, as sent back to back on a connection. The texts may be
+     * separated by whitespace, or preceded by the RS char as in RFC 7464
+     * JSON text sequences. After the end of a text, the parser's
+     * {@code hasNext()} reads ahead to find if there is another text. The
+     * value of the property could be anything.
+     */
+    public static final String MULTIPLE_VALUES = "org.glassfish.json.JsonParserFactoryImpl.multipleValues";
+
+    /**
+     * Configuration property for the maximum nesting depth of objects and
+     * arrays. The value is an {@code Integer}, there is no limit by default.
+     */
+    public static final String MAX_DEPTH = "org.glassfish.json.JsonParserFactoryImpl.maxDepth";
+
+    /**
+     * Configuration property for the maximum number of chars in a key
+     * name, string or number value. The value is an {@code Integer}, there
+     * is no limit by default.
+     */
+    public static final String MAX_TOKEN_LENGTH = "org.glassfish.json.JsonParserFactoryImpl.maxTokenLength";
+
+    /**
+     * Configuration property for the maximum number of chars in a number
+     * value, including its sign, fraction and exponent parts. This bounds
+     * the work of converting the number to BigDecimal. The value is an
+     * {@code Integer}, there is no limit by default.
+     */
+    public static final String MAX_NUMBER_LENGTH = "org.glassfish.json.JsonParserFactoryImpl.maxNumberLength";
+
+    /**
+     * Configuration property for the maximum size of the input, in bytes
+     * for byte input and in chars for char input. The value is a
+     * {@code Long} or an {@code Integer}, there is no limit by default.
+     */
+    public static final String MAX_DOCUMENT_SIZE = "org.glassfish.json.JsonParserFactoryImpl.maxDocumentSize";
+
+    /**
+     * Configuration property for the maximum total number of object members
+     * and array elements in the input. The value is a {@code Long} or an
+     * {@code Integer}, there is no limit by default.
+     */
+    public static final String MAX_MEMBERS = "org.glassfish.json.JsonParserFactoryImpl.maxMembers";
+
+    // The tables are allocated for every parser
+    static final int MAX_TABLE_SIZE = 1 << 20;
+
+    private final boolean structuralIndex;
+    private final boolean multipleValues;
+    private final int keyTableSize;
+    private final int valueTableSize;
+    private final int maxDepth;
+    private final int maxTokenLength;
+    private final int maxNumberLength;
+    private final long maxDocumentSize;
+    private final long maxMembers;
+    private final Map<String, Object> config = new HashMap<String, Object>();
+
+    public JsonParserFactoryImpl() {
+        structuralIndex = false;
+        multipleValues = false;
+        keyTableSize = SymbolTable.DEFAULT_SIZE;
+        valueTableSize = 0;
+        maxDepth = Integer.MAX_VALUE;
+        maxTokenLength = Integer.MAX_VALUE;
+        maxNumberLength = Integer.MAX_VALUE;
+        maxDocumentSize = Long.MAX_VALUE;
+        maxMembers = Long.MAX_VALUE;
+    }
+
+    public JsonParserFactoryImpl(Map<String, ?> config) {
+        structuralIndex = config != null && config.containsKey(STRUCTURAL_INDEX);
+        if (structuralIndex) {
+            this.config.put(STRUCTURAL_INDEX, true);
+        }
+        multipleValues = config != null && config.containsKey(MULTIPLE_VALUES);
+        if (multipleValues) {
+            this.config.put(MULTIPLE_VALUES, true);
+        }
+        keyTableSize = tableSize(config, KEY_TABLE_SIZE, SymbolTable.DEFAULT_SIZE);
+        valueTableSize = tableSize(config, VALUE_TABLE_SIZE, 0);
+        maxDepth = (int) limit(config, MAX_DEPTH, Integer.MAX_VALUE);
+        maxTokenLength = (int) limit(config, MAX_TOKEN_LENGTH, Integer.MAX_VALUE);
+        maxNumberLength = (int) limit(config, MAX_NUMBER_LENGTH, Integer.MAX_VALUE);
+        maxDocumentSize = limit(config, MAX_DOCUMENT_SIZE, Long.MAX_VALUE);
+        maxMembers = limit(config, MAX_MEMBERS, Long.MAX_VALUE);
+    }
+
+    private int tableSize(Map<String, ?> config, String name, int defaultValue) {
+        Object value = config == null ? null : config.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        long size = ((Number) value).longValue();
+        if (size < 0 || size > MAX_TABLE_SIZE) {
+            throw new IllegalArgumentException("Invalid value "+value+" for "+name);
+        }
+        this.config.put(name, value);
+        return (int) size;
+    }
+
+    private long limit(Map<String, ?> config, String name, long defaultValue) {
+        Object value = config == null ? null : config.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        long limit = ((Number) value).longValue();
+        if (limit <= 0 || limit > defaultValue) {
+            throw new IllegalArgumentException("Invalid value "+value+" for "+name);
+        }
+        this.config.put(name, value);
+        return limit;
+    }
 
     @Override
     public JsonParser createParser(Reader reader) {
-        return new JsonParserImpl(reader);
+        if (maxDocumentSize != Long.MAX_VALUE) {
+            reader = new LimitedReader(reader, maxDocumentSize);
+        }
+        return createParser(new JsonTokenizer(reader));
     }
 
     @Override
     public JsonParser createParser(InputStream in) {
-        return new JsonParserImpl(in);
+        UnicodeDetectingInputStream uin = new UnicodeDetectingInputStream(limit(in));
+        return createLimitedParser(uin, uin.getCharset());
     }
 
     @Override
     public JsonParser createParser(InputStream in, Charset charset) {
-        return new JsonParserImpl(in, charset);
+        return createLimitedParser(limit(in), charset);
+    }
+
+    // Counts the bytes that are read against MAX_DOCUMENT_SIZE
+    InputStream limit(InputStream in) {
+        return maxDocumentSize == Long.MAX_VALUE ? in : new LimitedInputStream(in, maxDocumentSize);
+    }
+
+    // The input stream is already limited
+    private JsonParser createLimitedParser(InputStream in, Charset charset) {
+        if (structuralIndex && charset.equals(UnicodeDetectingInputStream.UTF_8)) {
+            JsonStructuralIndex index = JsonStructuralIndex.read(in);
+            return createParser(new JsonTokenizer(in, index));
+        }
+        return createParser(JsonParserImpl.createTokenizer(in, charset));
+    }
+
+    @Override
+    public JsonParser createParser(ByteBuffer buffer) {
+        return createParser(new ByteBuffer[] { buffer });
+    }
+
+    /**
+     * Creates a parser that tokenizes UTF-8 encoded bytes in the backing
+     * arrays of the buffers, without copying them. Bytes in other
+     * encodings are read as a byte stream.
+     */
+    @Override
+    public JsonParser createParser(ByteBuffer[] segments) {
+        long size = 0;
+        for (ByteBuffer segment : segments) {
+            size += segment.remaining();
+        }
+        if (size > maxDocumentSize) {
+            throw tooLarge();
+        }
+        UnicodeDetectingInputStream uin = new UnicodeDetectingInputStream(
+                new ByteBufferInputStream(segments));
+        if (structuralIndex || !uin.getCharset().equals(UnicodeDetectingInputStream.UTF_8)) {
+            return createLimitedParser(uin, uin.getCharset());
+        }
+        return createParser(new JsonTokenizer(segments, uin.getBomLength()));
+    }
+
+    // The channel's stream reads directly into the tokenizer's byte buffer
+    @Override
+    public JsonParser createParser(ReadableByteChannel channel) {
+        return createParser(Channels.newInputStream(channel));
+    }
+
+    @Override
+    public JsonFeedParser createFeedParser() {
+        JsonTokenizer tokenizer = new JsonTokenizer();
+        setTables(tokenizer);
+        tokenizer.setLimits(maxTokenLength, maxNumberLength, maxDocumentSize);
+        JsonFeedParserImpl parser = new JsonFeedParserImpl(tokenizer);
+        parser.setMultipleValues(multipleValues);
+        parser.setLimits(maxDepth, maxMembers);
+        return parser;
+    }
+
+    private JsonParser createParser(JsonTokenizer tokenizer) {
+        configure(tokenizer);
+        return createConfiguredParser(tokenizer);
+    }
+
+    // Sets the tables and the limits of this factory on the tokenizer
+    void configure(JsonTokenizer tokenizer) {
+        setTables(tokenizer);
+        tokenizer.setLimits(maxTokenLength, maxNumberLength, maxDocumentSize);
+    }
+
+    // Creates a parser of a tokenizer that is already configured, so that
+    // a tokenizer that is moved from one range to the next is configured
+    // only once
+    JsonParser createConfiguredParser(JsonTokenizer tokenizer) {
+        JsonParserImpl parser = new JsonParserImpl(tokenizer);
+        parser.setMultipleValues(multipleValues);
+        parser.setLimits(maxDepth, maxMembers);
+        return parser;
+    }
+
+    long getMaxMembers() {
+        return maxMembers;
+    }
+
+    private JsonParsingException tooLarge() {
+        return new JsonParsingException("Input is larger than the limit of "+maxDocumentSize+" bytes");
+    }
+
+    private void setTables(JsonTokenizer tokenizer) {
+        tokenizer.setKeyTableSize(keyTableSize);
+        if (valueTableSize != 0) {
+            tokenizer.setValueTable(new JsonStringTable(valueTableSize));
+        }
     }
 
     @Override
@@ -85,4 +331,100 @@ public class JsonParserFactoryImpl implements JsonParserFactory {
     public JsonParser createParser(JsonObject object) {
         return new JsonStructureParser(object);
     }
+
+    // Counts the bytes that are read, and fails once the limit is exceeded
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void count(long n) {
+            count += n;
+            if (count > limit) {
+                throw new JsonParsingException("Input is larger than the limit of "+limit+" bytes");
+            }
+        }
+    }
+
+    // Counts the chars that are read, and fails once the limit is exceeded
+    private static final class LimitedReader extends FilterReader {
+        private final long limit;
+        private long count;
+
+        LimitedReader(Reader reader, long limit) {
+            super(reader);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int ch = super.read();
+            if (ch != -1) {
+                count(1);
+            }
+            return ch;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            int read = super.read(cbuf, off, len);
+            if (read > 0) {
+                count(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        private void count(long n) {
+            count += n;
+            if (count > limit) {
+                throw new JsonParsingException("Input is larger than the limit of "+limit+" chars");
+            }
+        }
+    }
 }
@@ -57,35 +57,80 @@ import org.glassfish.json.JsonTokenizer.JsonToken;
  */
 public class JsonParserImpl implements JsonParser {
 
-    private State currentState = State.START_DOCUMENT;
-    private State enclosingState = State.START_DOCUMENT;
+    // Parser states, the state after a token is looked up in TRANSITIONS
+    private static final int START_DOCUMENT = 0;
+    private static final int START_OBJECT = 1;
+    private static final int KEY = 2;
+    private static final int COLON = 3;
+    private static final int OBJECT_VALUE = 4;      // after a value in an object
+    private static final int OBJECT_COMMA = 5;
+    private static final int START_ARRAY = 6;
+    private static final int ARRAY_VALUE = 7;       // after a value in an array
+    private static final int ARRAY_COMMA = 8;
+    private static final int END_DOCUMENT = 9;      // after the root is closed
+    private static final int STATES = 10;
+    // Transition targets that are resolved to OBJECT_VALUE, ARRAY_VALUE or
+    // END_DOCUMENT using the enclosing container
+    private static final int END_OBJECT = 10;
+    private static final int END_ARRAY = 11;
+
+    private static final int TOKENS = JsonToken.values().length;
+    private static final Event[] EVENTS = Event.values();
+
+    // TRANSITIONS[state*TOKENS + token] is (event+1) << 4 | next state,
+    // where event is 0 for tokens that don't produce an event. The MEMBER
+    // bit is set for the tokens that start an object member or an array
+    // element. 0 means an unexpected token.
+    private static final int[] TRANSITIONS = new int[STATES*TOKENS];
+    private static final int MEMBER = 1 << 8;
+
+    private int currentState = START_DOCUMENT;
 
     private Event currentEvent;
 
-    private final Deque<State> stack = new ArrayDeque<State>();
-    private final StateIterator stateIterator;
+    // The enclosing containers, bit i is set if the container at depth i
+    // is an object
+    private long[] containers = new long[1];
+    private JsonToken token;
     private final JsonTokenizer tokenizer;
     private int depth = 0;
+    // set if the parser reads a sequence of JSON texts
+    private boolean multipleValues;
+    // set if token is read by hasNext() to find if there is another text
+    private boolean peeked;
+    // limits of the nesting depth and the number of members and elements
+    private int maxDepth = Integer.MAX_VALUE;
+    private long maxMembers = Long.MAX_VALUE;
+    private long members;
 
     public JsonParserImpl(Reader reader) {
         tokenizer = new JsonTokenizer(reader);
-        stateIterator = new StateIterator();
     }
 
     public JsonParserImpl(InputStream in) {
         UnicodeDetectingInputStream uin = new UnicodeDetectingInputStream(in);
-        tokenizer = new JsonTokenizer(new InputStreamReader(uin, uin.getCharset()));
-        stateIterator = new StateIterator();
+        tokenizer = createTokenizer(uin, uin.getCharset());
     }
 
     public JsonParserImpl(InputStream in, Charset encoding) {
-        tokenizer = new JsonTokenizer(new InputStreamReader(in, encoding));
-        stateIterator = new StateIterator();
+        tokenizer = createTokenizer(in, encoding);
+    }
+
+    JsonParserImpl(JsonTokenizer tokenizer) {
+        this.tokenizer = tokenizer;
+    }
+
+    // UTF-8 bytes are tokenized directly, others are decoded to chars first
+    static JsonTokenizer createTokenizer(InputStream in, Charset encoding) {
+        return encoding.equals(UnicodeDetectingInputStream.UTF_8)
+                ? new JsonTokenizer(in)
+                : new JsonTokenizer(new InputStreamReader(in, encoding));
     }
 
     public String getString() {
-        if (currentEvent == Event.KEY_NAME || currentEvent == Event.VALUE_STRING
-                || currentEvent == Event.VALUE_NUMBER) {
+        if (currentEvent == Event.KEY_NAME) {
+            return tokenizer.getKey();
+        } else if (currentEvent == Event.VALUE_STRING || currentEvent == Event.VALUE_NUMBER) {
             return tokenizer.getValue();
         }
         throw new IllegalStateException("JsonParser#getString() is valid only "+
@@ -93,12 +138,36 @@ public class JsonParserImpl implements JsonParser {
                 "But current parser state is "+currentEvent);
     }
 
+    @Override
+    public CharSequence getCharSequence() {
+        if (currentEvent == Event.KEY_NAME || currentEvent == Event.VALUE_STRING
+                || currentEvent == Event.VALUE_NUMBER) {
+            return tokenizer.getCharSequence();
+        }
+        throw new IllegalStateException("JsonParser#getCharSequence() is valid only "+
+                "KEY_NAME, VALUE_STRING, VALUE_NUMBER parser states. "+
+                "But current parser state is "+currentEvent);
+    }
+
+    @Override
+    public boolean stringEquals(CharSequence chars) {
+        return CharArraySequence.contentEquals(getCharSequence(), chars);
+    }
+
+    @Override
+    public boolean stringStartsWith(CharSequence prefix) {
+        return CharArraySequence.startsWith(getCharSequence(), prefix);
+    }
+
     public JsonNumber.NumberType getNumberType() {
         if (currentEvent != Event.VALUE_NUMBER) {
             throw new IllegalStateException("JsonParser#getNumberType() is valid only "+
                 "VALUE_NUMBER parser state. "+
                 "But current parser state is "+currentEvent);
         }
+        if (tokenizer.isIntegral()) {
+            return JsonNumber.NumberType.INTEGER;
+        }
         BigDecimal bigDecimal = new BigDecimal(tokenizer.getValue());
         return bigDecimal.scale() == 0 ? JsonNumber.NumberType.INTEGER : JsonNumber.NumberType.DECIMAL;
     }
@@ -110,6 +179,9 @@ public class JsonParserImpl implements JsonParser {
                     "VALUE_NUMBER parser state. "+
                     "But current parser state is "+currentEvent);
         }
+        if (tokenizer.isDefinitelyLong()) {
+            return (int) tokenizer.getLongValue();
+        }
         return new BigDecimal(tokenizer.getValue()).intValue();
     }
 
@@ -120,6 +192,9 @@ public class JsonParserImpl implements JsonParser {
                     "VALUE_NUMBER parser state. "+
                     "But current parser state is "+currentEvent);
         }
+        if (tokenizer.isDefinitelyLong()) {
+            return tokenizer.getLongValue();
+        }
         return new BigDecimal(tokenizer.getValue()).longValue();
     }
 
@@ -133,100 +208,266 @@ public class JsonParserImpl implements JsonParser {
         return new BigDecimal(tokenizer.getValue());
     }
 
-    public boolean hasNext() {
-        return stateIterator.hasNext();
+    @Override
+    public double getDoubleValue() {
+        if (currentEvent != Event.VALUE_NUMBER) {
+            throw new IllegalStateException("JsonParser#getDoubleValue() is valid only "+
+                    "VALUE_NUMBER parser state. "+
+                    "But current parser state is "+currentEvent);
+        }
+        return tokenizer.getDoubleValue();
     }
 
-    public Event next() {
-        return stateIterator.next();
+    @Override
+    public void skipChildren() {
+        if (currentEvent == Event.START_OBJECT || currentEvent == Event.START_ARRAY) {
+            tokenizer.skipStructure();
+            currentState = closeContainer();
+            currentEvent = currentEvent == Event.START_OBJECT ? Event.END_OBJECT : Event.END_ARRAY;
+        }
+    }
+
+    @Override
+    public void skipValue() {
+        if (currentEvent != Event.KEY_NAME) {
+            throw new IllegalStateException("JsonParser#skipValue() is valid only "+
+                    "KEY_NAME parser state. "+
+                    "But current parser state is "+currentEvent);
+        }
+        next();
+        skipChildren();
     }
 
-    private class StateIterator implements  Iterator<JsonParser.Event> {
-        JsonToken token;
+    @Override
+    public <T extends JsonValue> T getJsonValue(Class<T> clazz) {
+        JsonValue value;
+        if (currentEvent == Event.START_OBJECT) {
+            value = readStructure(true);
+        } else if (currentEvent == Event.START_ARRAY) {
+            value = readStructure(false);
+        } else if (currentEvent == Event.VALUE_STRING) {
+            return clazz.cast(tokenizer.getJsonString());
+        } else if (currentEvent == Event.VALUE_NUMBER) {
+            return clazz.cast(tokenizer.getJsonNumber());
+        } else if (currentEvent == Event.VALUE_TRUE) {
+            return clazz.cast(JsonValue.TRUE);
+        } else if (currentEvent == Event.VALUE_FALSE) {
+            return clazz.cast(JsonValue.FALSE);
+        } else if (currentEvent == Event.VALUE_NULL) {
+            return clazz.cast(JsonValue.NULL);
+        } else {
+            throw new IllegalStateException("JsonParser#getJsonValue() is valid only "+
+                    "START_OBJECT, START_ARRAY, VALUE_STRING, VALUE_NUMBER, VALUE_TRUE, "+
+                    "VALUE_FALSE, VALUE_NULL parser states. "+
+                    "But current parser state is "+currentEvent);
+        }
+        currentState = closeContainer();
+        currentEvent = currentEvent == Event.START_OBJECT ? Event.END_OBJECT : Event.END_ARRAY;
+        return clazz.cast(value);
+    }
 
-        @Override
-        public boolean hasNext() {
-            if (token == JsonToken.EOF) {
-                return false;
+    /*
+     * Builds the object or array directly from the tokens, without going
+     * through the events of the parser. The tokens are looked up in the
+     * same transitions, so the errors and the limits are the same as that
+     * of next(). The enclosing builders are kept in a chain of frames
+     * instead of on the thread stack, so that deeply nested input doesn't
+     * cause a StackOverflowError. The opening bracket is already read.
+     */
+    private JsonStructure readStructure(boolean object) {
+        Frame frame = new Frame(null, object);
+        int state = object ? START_OBJECT : START_ARRAY;
+        int level = depth;
+        while (true) {
+            JsonToken token = readToken();
+            if (token == null) {
+                // JsonFeedParser whose fed input ends within the value
+                throw new JsonParsingException("JsonFeedParser#getJsonValue() needs the entire value to be fed");
+            }
+            int transition = TRANSITIONS[state*TOKENS + token.ordinal()];
+            if (transition == 0) {
+                throw unexpected(state, token);
+            }
+            if ((transition & MEMBER) != 0 && ++members > maxMembers) {
+                throw new JsonParsingException("Number of members is more than the limit of "+maxMembers);
             }
-            return !(depth == 0 && (currentState == State.END_OBJECT || currentState == State.END_ARRAY));
+            state = transition & 0xF;
+            switch (token) {
+                case STRING:
+                    if (state == KEY) {
+                        frame.key = tokenizer.getKey();
+                    } else {
+                        frame.add(tokenizer.getJsonString());
+                    }
+                    break;
+                case NUMBER:
+                    frame.add(tokenizer.getJsonNumber());
+                    break;
+                case TRUE:
+                    frame.add(JsonValue.TRUE);
+                    break;
+                case FALSE:
+                    frame.add(JsonValue.FALSE);
+                    break;
+                case NULL:
+                    frame.add(JsonValue.NULL);
+                    break;
+                case CURLYOPEN:
+                case SQUAREOPEN:
+                    if (level >= maxDepth) {
+                        throw new JsonParsingException("Nesting depth is more than the limit of "+maxDepth);
+                    }
+                    level++;
+                    frame = new Frame(frame, token == JsonToken.CURLYOPEN);
+                    break;
+                case CURLYCLOSE:
+                case SQUARECLOSE:
+                    JsonStructure value = frame.build();
+                    frame = frame.parent;
+                    if (frame == null) {
+                        return value;
+                    }
+                    level--;
+                    frame.add(value);
+                    state = frame.objectBuilder != null ? OBJECT_VALUE : ARRAY_VALUE;
+                    break;
+                default:
+                    // COLON, COMMA
+                    break;
+            }
+        }
+    }
+
+    // Builder of an enclosing object or array in readStructure()
+    private static final class Frame {
+        final Frame parent;
+        final JsonObjectBuilder objectBuilder;
+        final JsonArrayBuilder arrayBuilder;
+        String key;
+
+        Frame(Frame parent, boolean object) {
+            this.parent = parent;
+            this.objectBuilder = object ? new JsonObjectBuilder() : null;
+            this.arrayBuilder = object ? null : new JsonArrayBuilder();
         }
 
-        @Override
-        public JsonParser.Event next() {
-            if (!hasNext()) {
-                throw new NoSuchElementException();
+        void add(JsonValue value) {
+            if (objectBuilder != null) {
+                objectBuilder.add(key, value);
+            } else {
+                arrayBuilder.add(value);
             }
-            while (true) {
-                try {
-                    token = tokenizer.nextToken();
-                } catch(IOException ioe) {
-                    throw new JsonException("I/O error while moving parser to next state", ioe);
-                }
-                State nextState = currentState.getTransition(token, enclosingState);
-                if (nextState == null) {
-                    throw new JsonParsingException("Expecting Tokens="+currentState.transitions.keySet()+"Got ="+token);
-                }
-                if (nextState == State.START_OBJECT || nextState == State.START_ARRAY) {
-                    stack.addFirst(currentState);
-                }
-                currentState = nextState;
-
-                switch (currentState) {
-                    case START_DOCUMENT:
-                        continue;
-                    case START_OBJECT:
-                        depth++;
-                        return currentEvent=JsonParser.Event.START_OBJECT;
-                    case KEY:
-                        return currentEvent=JsonParser.Event.KEY_NAME;
-                    case COLON:
-                        continue;
-                    case OBJECT_STRING:
-                        return currentEvent=JsonParser.Event.VALUE_STRING;
-                    case OBJECT_NUMBER:
-                        return currentEvent=JsonParser.Event.VALUE_NUMBER;
-                    case OBJECT_TRUE:
-                        return currentEvent=JsonParser.Event.VALUE_TRUE;
-                    case OBJECT_FALSE:
-                        return currentEvent=JsonParser.Event.VALUE_FALSE;
-                    case OBJECT_NULL:
-                        return currentEvent=JsonParser.Event.VALUE_NULL;
-                    case OBJECT_COMMA:
-                        continue;
-                    case END_OBJECT:
-                        depth--;
-                        enclosingState = stack.removeFirst();
-                        return currentEvent=JsonParser.Event.END_OBJECT;
-                    case START_ARRAY:
-                        depth++;
-                        return currentEvent=JsonParser.Event.START_ARRAY;
-                    case ARRAY_STRING:
-                        return currentEvent=JsonParser.Event.VALUE_STRING;
-                    case ARRAY_NUMBER:
-                        return currentEvent=JsonParser.Event.VALUE_NUMBER;
-                    case ARRAY_TRUE:
-                        return currentEvent=JsonParser.Event.VALUE_TRUE;
-                    case ARRAY_FALSE:
-                        return currentEvent=JsonParser.Event.VALUE_FALSE;
-                    case ARRAY_NULL:
-                        return currentEvent=JsonParser.Event.VALUE_NULL;
-                    case ARRAY_COMMA:
-                        continue;
-                    case END_ARRAY:
-                        depth--;
-                        enclosingState = stack.removeFirst();
-                        return currentEvent=JsonParser.Event.END_ARRAY;
-                    case END_DOCUMENT:
-                        break;
-                }
+        }
+
+        JsonStructure build() {
+            return objectBuilder != null ? objectBuilder.build() : arrayBuilder.build();
+        }
+    }
+
+    private static JsonParsingException unexpected(int state, JsonToken token) {
+        return new JsonParsingException("Expecting Tokens="+expectedTokens(state)+"Got ="+token);
+    }
+
+    // The parser goes back to START_DOCUMENT after each JSON text, and
+    // hasNext() reads ahead to find if there is another one
+    void setMultipleValues(boolean multipleValues) {
+        this.multipleValues = multipleValues;
+    }
+
+    void setLimits(int maxDepth, long maxMembers) {
+        this.maxDepth = maxDepth;
+        this.maxMembers = maxMembers;
+    }
+
+    public boolean hasNext() {
+        if (multipleValues && currentState == START_DOCUMENT && !peeked && token != JsonToken.EOF) {
+            token = readToken();
+            peeked = token != null;
+        }
+        return token != JsonToken.EOF && currentState != END_DOCUMENT;
+    }
+
+    public Event next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        while (true) {
+            if (peeked) {
+                peeked = false;
+            } else {
+                token = readToken();
+            }
+            if (token == null) {
+                // fed input doesn't have the next token yet
+                return currentEvent = Event.NEED_MORE_INPUT;
+            }
+            int transition = TRANSITIONS[currentState*TOKENS + token.ordinal()];
+            if (transition == 0) {
+                throw unexpected(currentState, token);
+            }
+            if ((transition & MEMBER) != 0 && ++members > maxMembers) {
+                throw new JsonParsingException("Number of members is more than the limit of "+maxMembers);
             }
+            int nextState = transition & 0xF;
+            switch (nextState) {
+                case START_OBJECT:
+                    openContainer(true);
+                    break;
+                case START_ARRAY:
+                    openContainer(false);
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    nextState = closeContainer();
+                    break;
+            }
+            currentState = nextState;
+            int event = (transition >>> 4) & 0xF;
+            if (event != 0) {
+                return currentEvent = EVENTS[event-1];
+            }
+        }
+    }
+
+    // Reads the next token, the record separators before a JSON text are
+    // skipped if there could be many texts
+    private JsonToken readToken() {
+        try {
+            JsonToken token;
+            do {
+                token = tokenizer.nextToken();
+            } while (token == JsonToken.RECORD_SEPARATOR && multipleValues
+                    && currentState == START_DOCUMENT);
+            return token;
+        } catch(IOException ioe) {
+            throw new JsonException("I/O error while moving parser to next state", ioe);
         }
+    }
+
+    private void openContainer(boolean object) {
+        if (depth >= maxDepth) {
+            throw new JsonParsingException("Nesting depth is more than the limit of "+maxDepth);
+        }
+        int index = depth >>> 6;
+        if (index == containers.length) {
+            containers = Arrays.copyOf(containers, 2*containers.length);
+        }
+        if (object) {
+            containers[index] |= 1L << depth;
+        } else {
+            containers[index] &= ~(1L << depth);
+        }
+        depth++;
+    }
 
-        @Override
-        public void remove() {
-            throw new UnsupportedOperationException();
+    // Returns the state after the current container is closed
+    private int closeContainer() {
+        depth--;
+        if (depth == 0) {
+            return multipleValues ? START_DOCUMENT : END_DOCUMENT;
         }
+        int enclosing = depth - 1;
+        return (containers[enclosing >>> 6] & (1L << enclosing)) != 0 ? OBJECT_VALUE : ARRAY_VALUE;
     }
 
     public void close() {
@@ -237,138 +478,58 @@ public class JsonParserImpl implements JsonParser {
         }
     }
 
-    private enum State {
-        START_DOCUMENT,
-
-        START_OBJECT,
-        KEY,
-        COLON,
-        OBJECT_STRING,
-        OBJECT_NUMBER,
-        OBJECT_TRUE,
-        OBJECT_FALSE,
-        OBJECT_NULL,
-        OBJECT_COMMA,
-        END_OBJECT {
-            @Override
-            State getTransition(JsonToken token, State enclosingState) {
-                if (token == JsonToken.COMMA) {
-                    return enclosingState == State.COLON ? State.OBJECT_COMMA : State.ARRAY_COMMA;
-                } else {
-                    return transitions.get(token);
-                }
+    private static List<JsonToken> expectedTokens(int state) {
+        List<JsonToken> tokens = new ArrayList<JsonToken>();
+        for (JsonToken token : JsonToken.values()) {
+            if (TRANSITIONS[state*TOKENS + token.ordinal()] != 0) {
+                tokens.add(token);
             }
-        },
-
-        START_ARRAY,
-        ARRAY_STRING,
-        ARRAY_NUMBER,
-        ARRAY_TRUE,
-        ARRAY_FALSE,
-        ARRAY_NULL,
-        ARRAY_COMMA,
-        END_ARRAY {
-            @Override
-            State getTransition(JsonToken token, State enclosingState) {
-                if (token == JsonToken.COMMA) {
-                    return enclosingState == State.COLON ? State.OBJECT_COMMA : State.ARRAY_COMMA;
-                } else {
-                    return transitions.get(token);
-                }
-            }            
-        },
-
-        END_DOCUMENT;
-        
-        static {
-            START_DOCUMENT.transition(JsonToken.CURLYOPEN, START_OBJECT);
-            START_DOCUMENT.transition(JsonToken.SQUAREOPEN, START_ARRAY);
-            
-            START_OBJECT.transition(JsonToken.CURLYCLOSE, END_OBJECT);
-            START_OBJECT.transition(JsonToken.STRING, KEY);
-            
-            KEY.transition(JsonToken.COLON, COLON);
-            
-            COLON.transition(JsonToken.STRING, OBJECT_STRING);
-            COLON.transition(JsonToken.NUMBER, OBJECT_NUMBER);
-            COLON.transition(JsonToken.TRUE, OBJECT_TRUE);
-            COLON.transition(JsonToken.FALSE, OBJECT_FALSE);
-            COLON.transition(JsonToken.NULL, OBJECT_NULL);
-            COLON.transition(JsonToken.CURLYOPEN, START_OBJECT);
-            COLON.transition(JsonToken.SQUAREOPEN, START_ARRAY);
-            
-            OBJECT_STRING.transition(JsonToken.CURLYCLOSE, END_OBJECT);
-            OBJECT_STRING.transition(JsonToken.COMMA, OBJECT_COMMA);
-
-            OBJECT_NUMBER.transition(JsonToken.CURLYCLOSE, END_OBJECT);
-            OBJECT_NUMBER.transition(JsonToken.COMMA, OBJECT_COMMA);
-
-            OBJECT_TRUE.transition(JsonToken.CURLYCLOSE, END_OBJECT);
-            OBJECT_TRUE.transition(JsonToken.COMMA, OBJECT_COMMA);
-
-            OBJECT_FALSE.transition(JsonToken.CURLYCLOSE, END_OBJECT);
-            OBJECT_FALSE.transition(JsonToken.COMMA, OBJECT_COMMA);
-
-            OBJECT_NULL.transition(JsonToken.CURLYCLOSE, END_OBJECT);
-            OBJECT_NULL.transition(JsonToken.COMMA, OBJECT_COMMA);
-            
-            OBJECT_COMMA.transition(JsonToken.STRING, KEY);
-            
-            END_OBJECT.transition(JsonToken.CURLYCLOSE, END_OBJECT);
-            END_OBJECT.transition(JsonToken.SQUARECLOSE, END_ARRAY);
-            // Need an enclosing scope to determine the next state
-            // END_OBJECT.transition(JsonToken.COMMA, OBJECT_COMMA or ARRAY_COMMA );
-            END_OBJECT.transition(JsonToken.EOF, END_DOCUMENT);
-            
-            START_ARRAY.transition(JsonToken.STRING, ARRAY_STRING);
-            START_ARRAY.transition(JsonToken.NUMBER, ARRAY_NUMBER);
-            START_ARRAY.transition(JsonToken.TRUE, ARRAY_TRUE);
-            START_ARRAY.transition(JsonToken.FALSE, ARRAY_FALSE);
-            START_ARRAY.transition(JsonToken.NULL, ARRAY_NULL);
-            START_ARRAY.transition(JsonToken.CURLYOPEN, START_OBJECT);
-            START_ARRAY.transition(JsonToken.SQUAREOPEN, START_ARRAY);
-            START_ARRAY.transition(JsonToken.SQUARECLOSE, END_ARRAY);
-            
-            ARRAY_STRING.transition(JsonToken.COMMA, ARRAY_COMMA);
-            ARRAY_STRING.transition(JsonToken.SQUARECLOSE, END_ARRAY);
-
-            ARRAY_NUMBER.transition(JsonToken.COMMA, ARRAY_COMMA);
-            ARRAY_NUMBER.transition(JsonToken.SQUARECLOSE, END_ARRAY);
-
-            ARRAY_TRUE.transition(JsonToken.COMMA, ARRAY_COMMA);
-            ARRAY_TRUE.transition(JsonToken.SQUARECLOSE, END_ARRAY);
-
-            ARRAY_FALSE.transition(JsonToken.COMMA, ARRAY_COMMA);
-            ARRAY_FALSE.transition(JsonToken.SQUARECLOSE, END_ARRAY);
-
-            ARRAY_NULL.transition(JsonToken.COMMA, ARRAY_COMMA);
-            ARRAY_NULL.transition(JsonToken.SQUARECLOSE, END_ARRAY);
-
-            ARRAY_COMMA.transition(JsonToken.STRING, ARRAY_STRING);
-            ARRAY_COMMA.transition(JsonToken.NUMBER, ARRAY_NUMBER);
-            ARRAY_COMMA.transition(JsonToken.TRUE, ARRAY_TRUE);
-            ARRAY_COMMA.transition(JsonToken.FALSE, ARRAY_FALSE);
-            ARRAY_COMMA.transition(JsonToken.NULL, ARRAY_NULL);
-            ARRAY_COMMA.transition(JsonToken.CURLYOPEN, START_OBJECT);
-            ARRAY_COMMA.transition(JsonToken.SQUAREOPEN, START_ARRAY);
-
-            END_ARRAY.transition(JsonToken.CURLYCLOSE, END_OBJECT);
-            END_ARRAY.transition(JsonToken.SQUARECLOSE, END_ARRAY);
-            // Need an enclosing scope to determine the next state
-            //END_ARRAY.transition(JsonToken.COMMA, OBJECT_COMMA or ARRAY_COMMA);
-            END_ARRAY.transition(JsonToken.EOF, END_DOCUMENT);
-        }
-        
-        final EnumMap<JsonToken, State> transitions
-                = new EnumMap<JsonToken, State>(JsonToken.class);
-        
-        private void transition(JsonToken token, State state) {
-            transitions.put(token, state);
         }
+        return tokens;
+    }
 
-        State getTransition(JsonToken token, State enclosingState) {
-            return transitions.get(token);
-        }
+    static {
+        transition(START_DOCUMENT, JsonToken.CURLYOPEN, START_OBJECT, Event.START_OBJECT);
+        transition(START_DOCUMENT, JsonToken.SQUAREOPEN, START_ARRAY, Event.START_ARRAY);
+
+        transition(START_OBJECT, JsonToken.CURLYCLOSE, END_OBJECT, Event.END_OBJECT);
+        transition(START_OBJECT, JsonToken.STRING, KEY, Event.KEY_NAME, MEMBER);
+
+        transition(KEY, JsonToken.COLON, COLON, null);
+
+        valueTransitions(COLON, OBJECT_VALUE, 0);
+
+        transition(OBJECT_VALUE, JsonToken.CURLYCLOSE, END_OBJECT, Event.END_OBJECT);
+        transition(OBJECT_VALUE, JsonToken.COMMA, OBJECT_COMMA, null);
+
+        transition(OBJECT_COMMA, JsonToken.STRING, KEY, Event.KEY_NAME, MEMBER);
+
+        valueTransitions(START_ARRAY, ARRAY_VALUE, MEMBER);
+        transition(START_ARRAY, JsonToken.SQUARECLOSE, END_ARRAY, Event.END_ARRAY);
+
+        transition(ARRAY_VALUE, JsonToken.SQUARECLOSE, END_ARRAY, Event.END_ARRAY);
+        transition(ARRAY_VALUE, JsonToken.COMMA, ARRAY_COMMA, null);
+
+        valueTransitions(ARRAY_COMMA, ARRAY_VALUE, MEMBER);
+    }
+
+    private static void valueTransitions(int state, int valueState, int flags) {
+        transition(state, JsonToken.STRING, valueState, Event.VALUE_STRING, flags);
+        transition(state, JsonToken.NUMBER, valueState, Event.VALUE_NUMBER, flags);
+        transition(state, JsonToken.TRUE, valueState, Event.VALUE_TRUE, flags);
+        transition(state, JsonToken.FALSE, valueState, Event.VALUE_FALSE, flags);
+        transition(state, JsonToken.NULL, valueState, Event.VALUE_NULL, flags);
+        transition(state, JsonToken.CURLYOPEN, START_OBJECT, Event.START_OBJECT, flags);
+        transition(state, JsonToken.SQUAREOPEN, START_ARRAY, Event.START_ARRAY, flags);
+    }
+
+    private static void transition(int state, JsonToken token, int nextState, Event event) {
+        transition(state, token, nextState, event, 0);
     }
-    
+
+    private static void transition(int state, JsonToken token, int nextState, Event event, int flags) {
+        int eventBits = event == null ? 0 : event.ordinal()+1;
+        TRANSITIONS[state*TOKENS + token.ordinal()] = flags | eventBits << 4 | nextState;
+    }
+
 }
\ No newline at end of file
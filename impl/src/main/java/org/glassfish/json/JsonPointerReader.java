@@ -0,0 +1,389 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+import javax.json.stream.JsonFeedParser;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+/**
+ * Reads only the values at the given JSON Pointers(RFC 6901) from the events
+ * of a parser. A reference token {@code *} matches every member of an object
+ * or element of an array, for example {@code /data/items/*}{@code /id}
+ * matches the {@code id} of every item. The members and elements that no
+ * pointer goes through are skipped with {@link JsonParser#skipValue()} and
+ * {@link JsonParser#skipChildren()}, so that their keys and values are not
+ * created, and the key names are compared with
+ * {@link JsonParser#stringEquals(CharSequence)}. Only the matching values
+ * are created. A {@link JsonFeedParser} is not supported, since it can't
+ * skip values that are not fed yet.
+ *
+ * <p>
+ * A value may match more than one pointer, then a match is returned for
+ * every pointer. The matches of the pointers that go through a value that
+ * is already matched are found in that value.
+ *
+ * <p>
+ * <b>For example:</b>
+ * <pre>
+ * <code>
+ * JsonParser parser = factory.createParser(in);
+ * JsonPointerReader reader = new JsonPointerReader(parser, "/data/items/*&#47;id");
+ * while (reader.hasNext()) {
+ *     JsonPointerReader.Match match = reader.next();
+ *     JsonValue id = match.getValue();
+ *     ...
+ * }
+ * reader.close();
+ * </code>
+ * </pre>
+ *
+ * @author Jitendra Kotamraju
+ */
+public class JsonPointerReader implements Iterator<JsonPointerReader.Match>, Closeable {
+    private final JsonParser parser;
+    private final String[] pointers;
+    // unescaped reference tokens of the pointers, null for *
+    private final String[][] tokens;
+    // reference tokens as array indexes, -1 if it is not an index
+    private final int[][] indexes;
+    private final long allPointers;
+
+    // The containers that are being walked. A bit of masks[k] is set for
+    // the pointers that go through the container at depth k.
+    private long[] masks = new long[16];
+    private boolean[] objects = new boolean[16];
+    private int[] counts = new int[16];         // elements seen in an array
+    private String[] path = new String[16];     // path[k] is the reference
+                                                // token of the value at level k
+    private int depth;
+    private final Queue<Match> matches = new ArrayDeque<Match>();
+
+    /**
+     * Creates a reader of the values at the given pointers from a parser
+     * that is at the start of its input.
+     *
+     * @param parser parser of the JSON text
+     * @param pointers JSON pointers, at most 64
+     * @throws IllegalArgumentException if a pointer is not valid, or if the
+     * parser is a {@link JsonFeedParser}
+     */
+    public JsonPointerReader(JsonParser parser, String... pointers) {
+        if (parser instanceof JsonFeedParser) {
+            throw new IllegalArgumentException("JsonFeedParser is not supported");
+        }
+        if (pointers.length > 64) {
+            throw new IllegalArgumentException("At most 64 pointers are supported, got="+pointers.length);
+        }
+        this.parser = parser;
+        this.pointers = pointers.clone();
+        this.tokens = new String[pointers.length][];
+        this.indexes = new int[pointers.length][];
+        for (int p = 0; p < pointers.length; p++) {
+            tokens[p] = parse(pointers[p]);
+            indexes[p] = new int[tokens[p].length];
+            for (int i = 0; i < tokens[p].length; i++) {
+                indexes[p][i] = toIndex(tokens[p][i]);
+            }
+        }
+        this.allPointers = pointers.length == 64 ? -1L : (1L << pointers.length) - 1;
+    }
+
+    /**
+     * Returns true if there are more matches.
+     */
+    @Override
+    public boolean hasNext() {
+        while (matches.isEmpty() && parser.hasNext()) {
+            advance();
+        }
+        return !matches.isEmpty();
+    }
+
+    /**
+     * Returns the next match.
+     *
+     * @throws NoSuchElementException if there are no more matches
+     */
+    @Override
+    public Match next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return matches.remove();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Closes this reader and the parser.
+     */
+    @Override
+    public void close() {
+        parser.close();
+    }
+
+    private void advance() {
+        Event e = parser.next();
+        if (depth == 0) {
+            // a root value
+            readValue(e, allPointers, 0);
+            return;
+        }
+        if (e == Event.END_OBJECT || e == Event.END_ARRAY) {
+            depth--;
+            return;
+        }
+        int top = depth - 1;
+        int level = depth;
+        long parentMask = masks[top];
+        long mask = 0;
+        if (objects[top]) {
+            // KEY_NAME
+            for (long bits = parentMask; bits != 0; bits &= bits - 1) {
+                int p = Long.numberOfTrailingZeros(bits);
+                String token = tokens[p][level - 1];
+                if (token == null || parser.stringEquals(token)) {
+                    mask |= 1L << p;
+                }
+            }
+            if (mask == 0) {
+                parser.skipValue();
+                return;
+            }
+            setPath(level, escape(parser.getString()));
+            readValue(parser.next(), mask, level);
+        } else {
+            int index = counts[top]++;
+            for (long bits = parentMask; bits != 0; bits &= bits - 1) {
+                int p = Long.numberOfTrailingZeros(bits);
+                if (tokens[p][level - 1] == null || indexes[p][level - 1] == index) {
+                    mask |= 1L << p;
+                }
+            }
+            if (mask == 0) {
+                parser.skipChildren();
+                return;
+            }
+            setPath(level, Integer.toString(index));
+            readValue(e, mask, level);
+        }
+    }
+
+    // The value with the event e is at the given level, and the pointers
+    // in mask match its path
+    private void readValue(Event e, long mask, int level) {
+        long matched = 0;
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            int p = Long.numberOfTrailingZeros(bits);
+            if (tokens[p].length == level) {
+                matched |= 1L << p;
+            }
+        }
+        if (matched != 0) {
+            JsonValue value = parser.getJsonValue(JsonValue.class);
+            String valuePath = path(level);
+            for (long bits = mask; bits != 0; bits &= bits - 1) {
+                int p = Long.numberOfTrailingZeros(bits);
+                find(value, p, level, valuePath);
+            }
+        } else if (e == Event.START_OBJECT || e == Event.START_ARRAY) {
+            push(mask, e == Event.START_OBJECT);
+        }
+    }
+
+    // Finds the matches of a pointer in a value that is already created
+    private void find(JsonValue value, int p, int level, String valuePath) {
+        if (tokens[p].length == level) {
+            matches.add(new Match(pointers[p], valuePath, value));
+            return;
+        }
+        String token = tokens[p][level];
+        if (value instanceof JsonObject) {
+            JsonObject object = (JsonObject) value;
+            if (token == null) {
+                for (Map.Entry<String, JsonValue> entry : object.entrySet()) {
+                    find(entry.getValue(), p, level + 1, valuePath + "/" + escape(entry.getKey()));
+                }
+            } else if (object.containsKey(token)) {
+                find(object.get(token), p, level + 1, valuePath + "/" + escape(token));
+            }
+        } else if (value instanceof JsonArray) {
+            JsonArray array = (JsonArray) value;
+            int index = indexes[p][level];
+            if (token == null) {
+                for (int i = 0; i < array.size(); i++) {
+                    find(array.get(i), p, level + 1, valuePath + "/" + i);
+                }
+            } else if (index >= 0 && index < array.size()) {
+                find(array.get(index), p, level + 1, valuePath + "/" + index);
+            }
+        }
+    }
+
+    private void push(long mask, boolean object) {
+        if (depth == masks.length) {
+            masks = Arrays.copyOf(masks, 2*depth);
+            objects = Arrays.copyOf(objects, 2*depth);
+            counts = Arrays.copyOf(counts, 2*depth);
+        }
+        masks[depth] = mask;
+        objects[depth] = object;
+        counts[depth] = 0;
+        depth++;
+    }
+
+    private void setPath(int level, String token) {
+        if (level == path.length) {
+            path = Arrays.copyOf(path, 2*level);
+        }
+        path[level] = token;
+    }
+
+    private String path(int level) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 1; i <= level; i++) {
+            sb.append('/').append(path[i]);
+        }
+        return sb.toString();
+    }
+
+    // Returns the unescaped reference tokens of a pointer, null for *
+    static String[] parse(String pointer) {
+        if (pointer.length() == 0) {
+            return new String[0];
+        }
+        if (pointer.charAt(0) != '/') {
+            throw new IllegalArgumentException("JSON Pointer must start with '/', got="+pointer);
+        }
+        String[] tokens = pointer.substring(1).split("/", -1);
+        for (int i = 0; i < tokens.length; i++) {
+            String token = tokens[i];
+            if (token.equals("*")) {
+                tokens[i] = null;
+            } else {
+                for (int k = token.indexOf('~'); k != -1; k = token.indexOf('~', k + 1)) {
+                    if (k + 1 == token.length() || (token.charAt(k + 1) != '0' && token.charAt(k + 1) != '1')) {
+                        throw new IllegalArgumentException("Invalid escape in JSON Pointer="+pointer);
+                    }
+                }
+                tokens[i] = token.replace("~1", "/").replace("~0", "~");
+            }
+        }
+        return tokens;
+    }
+
+    private static String escape(String token) {
+        return token.replace("~", "~0").replace("/", "~1");
+    }
+
+    // "0" or digits without a leading zero
+    private static int toIndex(String token) {
+        if (token == null || token.length() == 0 || token.length() > 9
+                || (token.charAt(0) == '0' && token.length() > 1)) {
+            return -1;
+        }
+        for (int i = 0; i < token.length(); i++) {
+            char ch = token.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return -1;
+            }
+        }
+        return Integer.parseInt(token);
+    }
+
+    /**
+     * A value that matches a pointer
+     */
+    public static final class Match {
+        private final String pointer;
+        private final String path;
+        private final JsonValue value;
+
+        Match(String pointer, String path, JsonValue value) {
+            this.pointer = pointer;
+            this.path = path;
+            this.value = value;
+        }
+
+        /**
+         * Returns the pointer that matches the value, as it is given to
+         * the reader.
+         *
+         * @return the pointer
+         */
+        public String getPointer() {
+            return pointer;
+        }
+
+        /**
+         * Returns the JSON pointer of the value, with the wildcards
+         * replaced by the names and indexes.
+         *
+         * @return the pointer of the value
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * Returns the value.
+         *
+         * @return the value
+         */
+        public JsonValue getValue() {
+            return value;
+        }
+    }
+}
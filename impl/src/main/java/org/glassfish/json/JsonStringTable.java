@@ -0,0 +1,73 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+import javax.json.JsonString;
+
+/**
+ * A bounded table of canonical JsonString values for a document. Records
+ * of the same kind repeat a few enum-like values, such as status names,
+ * currency and country codes. Returning the same JsonString instance for
+ * them avoids creating a String and a JsonString for every occurrence, and
+ * lets the built values share them. Like {@link SymbolTable}, the memory
+ * used is bounded by the table size and {@link #MAX_LENGTH}.
+ *
+ * @author Jitendra Kotamraju
+ */
+final class JsonStringTable extends DirectMappedTable<JsonString> {
+    // Longer values are mostly unique, they are not kept in the table
+    static final int MAX_LENGTH = 32;
+
+    JsonStringTable(int size) {
+        super(new JsonString[capacity(size)], MAX_LENGTH);
+    }
+
+    @Override
+    JsonString create(String string) {
+        return new JsonStringImpl(string);
+    }
+
+    @Override
+    String toString(JsonString entry) {
+        return entry.getValue();
+    }
+
+}
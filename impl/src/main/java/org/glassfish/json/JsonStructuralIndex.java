@@ -0,0 +1,216 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+import javax.json.JsonException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Structural index of UTF-8 encoded JSON text that is entirely in memory.
+ * It records the positions of structural chars <code>{ } [ ] : ,</code>
+ * that are not in strings, the positions of the quotes that start and
+ * end the strings, and the positions of the first chars of numbers and
+ * literals. The index is built in bulk, 8 bytes at a time, using bitwise
+ * operations on a long word. The tokenizer then jumps from one position
+ * to the next instead of looking at every whitespace char, and knows
+ * where a string ends without searching for the quote.
+ *
+ * @author Jitendra Kotamraju
+ */
+final class JsonStructuralIndex {
+    private static final long ONES = 0x0101010101010101L;
+    private static final long LOW7 = 0x7F7F7F7F7F7F7F7FL;
+    private static final long HIGH = 0x8080808080808080L;
+
+    private static final long QUOTE = '"' * ONES;
+    private static final long BACKSLASH = '\\' * ONES;
+    private static final long CURLYOPEN = '{' * ONES;
+    private static final long CURLYCLOSE = '}' * ONES;
+    private static final long SQUAREOPEN = '[' * ONES;
+    private static final long SQUARECLOSE = ']' * ONES;
+    private static final long COLON = ':' * ONES;
+    private static final long COMMA = ',' * ONES;
+    private static final long SPACE = ' ' * ONES;
+    private static final long TAB = '\t' * ONES;
+    private static final long LF = '\n' * ONES;
+    private static final long CR = '\r' * ONES;
+    private static final long DEL = 0x7F * ONES;
+
+    final byte[] buf;
+    final int length;
+    final ByteBuffer words;         // little-endian view of buf
+    int[] positions;
+    int size;
+
+    private JsonStructuralIndex(byte[] buf, int length) {
+        this.buf = buf;
+        this.length = length;
+        this.words = ByteBuffer.wrap(buf).order(ByteOrder.LITTLE_ENDIAN);
+        this.positions = new int[length/8 + 16];
+    }
+
+    /**
+     * Reads the entire UTF-8 encoded stream and builds its index. The
+     * stream is not closed.
+     */
+    static JsonStructuralIndex read(InputStream in) {
+        byte[] buf = new byte[8192];
+        int length = 0;
+        try {
+            int read;
+            while ((read = in.read(buf, length, buf.length - length)) != -1) {
+                length += read;
+                if (length == buf.length) {
+                    byte[] temp = new byte[2*buf.length];
+                    System.arraycopy(buf, 0, temp, 0, length);
+                    buf = temp;
+                }
+            }
+        } catch (IOException ioe) {
+            throw new JsonException("I/O error while reading JSON text", ioe);
+        }
+        return build(buf, length);
+    }
+
+    /**
+     * Builds the index of the first length bytes of buf
+     */
+    static JsonStructuralIndex build(byte[] buf, int length) {
+        JsonStructuralIndex index = new JsonStructuralIndex(buf, length);
+        index.build();
+        return index;
+    }
+
+    private void build() {
+        boolean inString = false;
+        boolean escapeNext = false;
+        int prevAtom = 0;
+        for (int i = 0; i < length; i += 8) {
+            long w = i + 8 <= length ? words.getLong(i) : tail(i);
+
+            int quote = movemask(eq(w, QUOTE));
+            int backslash = movemask(eq(w, BACKSLASH));
+            if (backslash != 0 || escapeNext) {
+                // rare, quotes escaped by the backslashes are removed
+                int escaped = 0;
+                for (int k = 0; k < 8; k++) {
+                    if (escapeNext) {
+                        escaped |= 1 << k;
+                        escapeNext = false;
+                    } else if ((backslash & (1 << k)) != 0) {
+                        escapeNext = true;
+                    }
+                }
+                quote &= ~escaped;
+            }
+
+            // bytes from an opening quote upto(not including) the closing quote
+            int inside = prefixXor(quote) ^ (inString ? 0xFF : 0);
+            inString = (inside & 0x80) != 0;
+
+            int structural = movemask(eq(w, CURLYOPEN) | eq(w, CURLYCLOSE)
+                    | eq(w, SQUAREOPEN) | eq(w, SQUARECLOSE)
+                    | eq(w, COLON) | eq(w, COMMA)) & ~inside;
+            int whitespace = movemask(eq(w, SPACE) | eq(w, TAB)
+                    | eq(w, LF) | eq(w, CR));
+
+            // numbers and literals, only their first byte is recorded
+            int atom = ~(whitespace | structural | quote | inside) & 0xFF;
+            int atomStart = atom & ~((atom << 1) | prevAtom);
+            prevAtom = atom >>> 7;
+
+            int bits = structural | quote | atomStart;
+            if (bits != 0) {
+                if (size + 8 > positions.length) {
+                    int[] temp = new int[2*positions.length];
+                    System.arraycopy(positions, 0, temp, 0, size);
+                    positions = temp;
+                }
+                do {
+                    positions[size++] = i + Integer.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                } while (bits != 0);
+            }
+        }
+    }
+
+    // last partial word, padded with spaces
+    private long tail(int i) {
+        long w = SPACE;
+        for (int k = 0; i + k < length; k++) {
+            w &= ~(0xFFL << (8*k));
+            w |= (buf[i + k] & 0xFFL) << (8*k);
+        }
+        return w;
+    }
+
+    // Sets the high bit of every byte of w that is equal to the byte in pattern
+    static long eq(long w, long pattern) {
+        long x = w ^ pattern;
+        return ~(((x & LOW7) + LOW7) | x | LOW7);
+    }
+
+    // Gathers the high bits of the 8 bytes into an int, byte k to bit k
+    static int movemask(long highBits) {
+        return (int) ((((highBits >>> 7) & ONES) * 0x0102040810204080L) >>> 56);
+    }
+
+    // bit k of the result is the xor of bits 0..k
+    static int prefixXor(int bits) {
+        bits ^= bits << 1;
+        bits ^= bits << 2;
+        bits ^= bits << 4;
+        return bits & 0xFF;
+    }
+
+    // true if all the 8 bytes are ASCII chars that can be in a string as they are
+    static boolean isPlainAscii(long w) {
+        return (w & HIGH) == 0
+                && ((w - 0x20 * ONES) & HIGH) == 0      // no control chars
+                && eq(w, BACKSLASH) == 0
+                && eq(w, QUOTE) == 0
+                && eq(w, DEL) == 0;
+    }
+
+}
@@ -1,7 +1,7 @@
 /*
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
  *
- * Copyright (c) 2012 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2012-2013 Oracle and/or its affiliates. All rights reserved.
  *
  * The contents of this file are subject to the terms of either the GNU
  * General Public License Version 2 only ("GPL") or the Common Development
@@ -75,6 +75,21 @@ class JsonStructureParser implements JsonParser {
                 + " KEY_NAME or VALUE_STRING states, not in "+state);
     }
 
+    @Override
+    public CharSequence getCharSequence() {
+        return getString();
+    }
+
+    @Override
+    public boolean stringEquals(CharSequence chars) {
+        return getString().contentEquals(chars);
+    }
+
+    @Override
+    public boolean stringStartsWith(CharSequence prefix) {
+        return CharArraySequence.startsWith(getString(), prefix);
+    }
+
     @Override
     public JsonNumber.NumberType getNumberType() {
         if (state == Event.VALUE_NUMBER) {
@@ -111,6 +126,51 @@ class JsonStructureParser implements JsonParser {
                 + " VALUE_NUMBER state, not in "+state);
     }
 
+    @Override
+    public double getDoubleValue() {
+        if (state == Event.VALUE_NUMBER) {
+            return ((JsonNumber)current.getJsonValue()).doubleValue();
+        }
+        throw new IllegalStateException("JsonParser#getDoubleValue() can only be called in"
+                + " VALUE_NUMBER state, not in "+state);
+    }
+
+    @Override
+    public void skipChildren() {
+        if (state == Event.START_OBJECT) {
+            state = Event.END_OBJECT;
+        } else if (state == Event.START_ARRAY) {
+            state = Event.END_ARRAY;
+        }
+    }
+
+    @Override
+    public void skipValue() {
+        if (state != Event.KEY_NAME) {
+            throw new IllegalStateException("JsonParser#skipValue() can only be called in"
+                    + " KEY_NAME state, not in "+state);
+        }
+        next();
+        skipChildren();
+    }
+
+    @Override
+    public <T extends JsonValue> T getJsonValue(Class<T> clazz) {
+        JsonValue value;
+        if (state == Event.START_OBJECT || state == Event.START_ARRAY) {
+            value = current.getStructure();
+            skipChildren();
+        } else if (state == Event.VALUE_STRING || state == Event.VALUE_NUMBER
+                || state == Event.VALUE_TRUE || state == Event.VALUE_FALSE
+                || state == Event.VALUE_NULL) {
+            value = current.getJsonValue();
+        } else {
+            throw new IllegalStateException("JsonParser#getJsonValue() can only be called in"
+                    + " START_OBJECT, START_ARRAY or value states, not in "+state);
+        }
+        return clazz.cast(value);
+    }
+
     @Override
     public boolean hasNext() {
         return !((state == Event.END_OBJECT || state == Event.END_ARRAY) && scopeStack.isEmpty());
@@ -192,6 +252,9 @@ class JsonStructureParser implements JsonParser {
     private static abstract class Scope implements Iterator {
         abstract JsonValue getJsonValue();
 
+        // the array or object of this scope
+        abstract JsonStructure getStructure();
+
         static Scope createScope(JsonValue value) {
             if (value instanceof JsonArray) {
                 return new ArrayScope((JsonArray)value);
@@ -203,10 +266,12 @@ class JsonStructureParser implements JsonParser {
     }
 
     private static class ArrayScope extends Scope {
+        private final JsonArray array;
         private final Iterator<JsonValue> it;
         private JsonValue value;
 
         ArrayScope(JsonArray array) {
+            this.array = array;
             this.it = array.iterator();
         }
 
@@ -231,14 +296,21 @@ class JsonStructureParser implements JsonParser {
             return value;
         }
 
+        @Override
+        JsonStructure getStructure() {
+            return array;
+        }
+
     }
 
     private static class ObjectScope extends Scope {
+        private final JsonObject object;
         private final Iterator<Map.Entry<String, JsonValue>> it;
         private JsonValue value;
         private String key;
 
         ObjectScope(JsonObject object) {
+            this.object = object;
             this.it = object.entrySet().iterator();
         }
 
@@ -265,6 +337,11 @@ class JsonStructureParser implements JsonParser {
             return value;
         }
 
+        @Override
+        JsonStructure getStructure() {
+            return object;
+        }
+
     }
 
 }
\ No newline at end of file
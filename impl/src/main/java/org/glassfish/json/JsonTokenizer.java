@@ -41,8 +41,12 @@
 package org.glassfish.json;
 
 import javax.json.JsonException;
+import javax.json.JsonNumber;
+import javax.json.JsonString;
 import javax.json.stream.JsonParsingException;
 import java.io.*;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 
 /**
  * JSON Tokenizer
@@ -53,6 +57,39 @@ final class JsonTokenizer implements Closeable {
 
     private final TokenizerReader reader;
     private int pushbackChar = -1;
+    // set if the input is fed, it is the same as reader
+    private FeedReader feedReader;
+    // set if the input is a range of an array, it is the same as reader
+    private ArrayReader arrayReader;
+    // canonical strings for key names, created when the first key is read,
+    // so that a tokenizer that doesn't read keys doesn't allocate it. A
+    // size of zero disables it.
+    private SymbolTable keyTable;
+    private int keyTableSize = SymbolTable.DEFAULT_SIZE;
+    // canonical JsonStrings for short string values, null if not used
+    private JsonStringTable valueTable;
+
+    // Set for number values: no fraction and exponent parts
+    private boolean integral;
+    // Set for integral values that fit in a long, the value is in longValue
+    private boolean fitsLong;
+    private long longValue;
+    // Number value as significand * 10^exponent, the significand holds at
+    // most 19 significant digits. truncated is set if there are more.
+    private boolean negative;
+    private long significand;
+    private int exponent;
+    private boolean truncated;
+    // Set if the exponent part is at least 100000, the BigDecimal scale of
+    // such a number may not fit in an int
+    private boolean hugeExponent;
+
+    // Limits of the string and number lengths, and of the fed bytes. The
+    // lengths are checked only if limited is set.
+    private boolean limited;
+    private int maxNumberLength = Integer.MAX_VALUE;
+    private long maxDocumentSize = Long.MAX_VALUE;
+    private long fed;
 
     @Override
     public void close() throws IOException {
@@ -64,11 +101,147 @@ final class JsonTokenizer implements Closeable {
         COLON, COMMA,
         STRING, NUMBER, TRUE, FALSE, NULL,
         CURLYCLOSE, SQUARECLOSE,
+        RECORD_SEPARATOR,           // RFC 7464 RS char before a JSON text
         EOF
     }
 
     JsonTokenizer(Reader reader) {
-        this.reader = new DirectReader(reader);
+        this(reader, true);
+    }
+
+    /**
+     * Creates a tokenizer that either reads the characters in blocks into
+     * its own buffer(and returns values as slices of that buffer) or reads
+     * one character at a time from the reader.
+     *
+     * @param reader character stream to be tokenized
+     * @param buffered true if characters are read in blocks
+     */
+    JsonTokenizer(Reader reader, boolean buffered) {
+        this.reader = buffered ? new BufReader(reader) : new DirectReader(reader);
+    }
+
+    /**
+     * Creates a tokenizer that works on the UTF-8 encoded bytes of the
+     * stream and decodes only the non-ASCII bytes to chars.
+     *
+     * @param in UTF-8 encoded byte stream to be tokenized
+     */
+    JsonTokenizer(InputStream in) {
+        this.reader = new Utf8Reader(in);
+    }
+
+    /**
+     * Creates a tokenizer that walks the structural index of UTF-8 encoded
+     * JSON text.
+     *
+     * @param in the stream from which the text is read, closed when this
+     *           tokenizer is closed
+     * @param index structural index of the text
+     */
+    JsonTokenizer(InputStream in, JsonStructuralIndex index) {
+        this.reader = new IndexReader(in, index);
+    }
+
+    /**
+     * Creates a tokenizer for the UTF-8 encoded remaining bytes of the
+     * buffers. The bytes are tokenized in place.
+     *
+     * @param bomLength number of bytes of the byte order mark to skip
+     */
+    JsonTokenizer(ByteBuffer[] segments, int bomLength) {
+        this.reader = new ByteBufferReader(segments, bomLength);
+    }
+
+    /**
+     * Creates a tokenizer for UTF-8 encoded bytes of an array. The range of
+     * the array that is tokenized is set using {@link #setRange(int, int)},
+     * so that the same tokenizer is used for many values in the array.
+     */
+    JsonTokenizer(byte[] buf) {
+        this.arrayReader = new ArrayReader(buf);
+        this.reader = arrayReader;
+    }
+
+    void setRange(int start, int end) {
+        pushbackChar = -1;
+        arrayReader.setRange(start, end);
+    }
+
+    /**
+     * Creates a tokenizer for UTF-8 encoded bytes that are fed to it using
+     * {@link #feed(byte[], int, int)}.
+     */
+    JsonTokenizer() {
+        this.feedReader = new FeedReader();
+        this.reader = feedReader;
+    }
+
+    void feed(byte[] b, int off, int len) {
+        checkFed(len);
+        unreadFedPushback();
+        feedReader.feed(b, off, len);
+    }
+
+    void feed(ByteBuffer buffer) {
+        checkFed(buffer.remaining());
+        unreadFedPushback();
+        feedReader.feed(buffer);
+    }
+
+    private void checkFed(int len) {
+        fed += len;
+        if (fed > maxDocumentSize) {
+            throw new JsonParsingException("Input is larger than the limit of "+maxDocumentSize+" bytes");
+        }
+    }
+
+    /**
+     * Sets the maximum number of chars in a string or number value, the
+     * maximum number of chars in a number value, and the maximum number of
+     * bytes that are fed. The buffers don't grow much beyond the length
+     * limit, as the limit is also checked when they grow.
+     */
+    void setLimits(int maxValueLength, int maxNumberLength, long maxDocumentSize) {
+        this.reader.maxValueLength = maxValueLength;
+        this.maxNumberLength = maxNumberLength;
+        this.maxDocumentSize = maxDocumentSize;
+        this.limited = maxValueLength != Integer.MAX_VALUE || maxNumberLength != Integer.MAX_VALUE;
+    }
+
+    private void checkLength(boolean number) {
+        int length = reader.getCharSequence().length();
+        if (length > reader.maxValueLength) {
+            throw tooLong(reader.maxValueLength);
+        }
+        if (number && length > maxNumberLength) {
+            throw new JsonParsingException("Number is longer than the limit of "+maxNumberLength+" chars");
+        }
+    }
+
+    static JsonParsingException tooLong(int maxValueLength) {
+        return new JsonParsingException("String or number is longer than the limit of "
+                +maxValueLength+" chars");
+    }
+
+    void endOfInput() {
+        feedReader.endOfInput = true;
+    }
+
+    // true if the fed input has the next token entirely, or if all the
+    // input is fed
+    private boolean hasFedToken() {
+        unreadFedPushback();
+        return feedReader.hasToken();
+    }
+
+    // The char after a number is examined again as part of the next token,
+    // so that the parsed bytes before the token can be discarded
+    private void unreadFedPushback() {
+        if (pushbackChar != -1 && pushbackChar < 0x80) {
+            pushbackChar = -1;
+            feedReader.pos--;
+        }
     }
 
     private int read() {
@@ -89,73 +262,83 @@ final class JsonTokenizer implements Closeable {
     }
 
     private void readString() {
-        int ch;
-        do {
-            ch = read();
+        while (true) {
+            // reads and stores the chars that don't need any processing
+            int ch = reader.readStringChars();
             switch (ch) {
                 case -1:
                     throw new JsonException("Unexpected EOF");
-                case '\\':
-                    int ch2 = read();
-                    switch (ch2) {
-                        case 'b':
-                            store('\b');
-                            break;
-                        case 't':
-                            store('\t');
-                            break;
-                        case 'n':
-                            store('\n');
-                            break;
-                        case 'f':
-                            store('\f');
-                            break;
-                        case 'r':
-                            store('\r');
-                            break;
-                        case '"':
-                        case '\\':
-                        case '/':
-                            store((char) ch2);
-                            break;
-                        case 'u': {
-                            char unicode = 0;
-                            for (int i = 0; i < 4; i++) {
-                                int ch3 = read();
-                                unicode <<= 4;
-                                if (ch3 >= '0' && ch3 <= '9') {
-                                    unicode |= ((char) ch3) - '0';
-                                } else if (ch3 >= 'a' && ch3 <= 'f') {
-                                    unicode |= (((char) ch3) - 'a') + 0xA;
-                                } else if (ch3 >= 'A' && ch3 <= 'F') {
-                                    unicode |= (((char) ch3) - 'A') + 0xA;
-                                } else {
-                                    throw new JsonParsingException("Unexpected Char="+ch3);
-                                }
-                            }
-                            store((char) (unicode & 0xffff));
-                            break;
-                        }
-                        default:
-                            throw new JsonParsingException("Unexpected Char="+ch2);
-                    }
-                    break;
                 case '"':
+                    return;
+                case '\\':
+                    readEscape();
                     break;
                 default:
-                    if ((ch >= 0x0000 && ch <= 0x001F) ||
-                            (ch >= 0x007F && ch <= 0x009F)) {
-                        throw new JsonException("Unexpected Char="+ch);
+                    throw new JsonException("Unexpected Char="+ch);
+            }
+        }
+    }
+
+    private void readEscape() {
+        int ch2 = read();
+        switch (ch2) {
+            case 'b':
+                store('\b');
+                break;
+            case 't':
+                store('\t');
+                break;
+            case 'n':
+                store('\n');
+                break;
+            case 'f':
+                store('\f');
+                break;
+            case 'r':
+                store('\r');
+                break;
+            case '"':
+            case '\\':
+            case '/':
+                store((char) ch2);
+                break;
+            case 'u': {
+                char unicode = 0;
+                for (int i = 0; i < 4; i++) {
+                    int ch3 = read();
+                    unicode <<= 4;
+                    if (ch3 >= '0' && ch3 <= '9') {
+                        unicode |= ((char) ch3) - '0';
+                    } else if (ch3 >= 'a' && ch3 <= 'f') {
+                        unicode |= (((char) ch3) - 'a') + 0xA;
+                    } else if (ch3 >= 'A' && ch3 <= 'F') {
+                        unicode |= (((char) ch3) - 'A') + 0xA;
+                    } else {
+                        throw new JsonParsingException("Unexpected Char="+ch3);
                     }
-                    store((char) ch);
+                }
+                store((char) (unicode & 0xffff));
+                break;
             }
-        } while (ch != '"');
+            default:
+                throw new JsonParsingException("Unexpected Char="+ch2);
+        }
+    }
+
+    static boolean isWhitespace(int ch) {
+        return ch == 0x20 || ch == 0x09 || ch == 0x0a || ch == 0x0d;
+    }
+
+    // Chars of a string value that can be stored as they are
+    static boolean isPlainStringChar(int ch) {
+        return ch >= 0x20 && ch != '"' && ch != '\\' && (ch < 0x7F || ch > 0x9F);
     }
 
     private void readNumber(int ch)  {
 
         // sign
-        if (ch == '-') {
+        boolean negative = ch == '-';
+        if (negative) {
             store((char) ch);
 
             ch = read();
@@ -165,76 +348,107 @@ final class JsonTokenizer implements Closeable {
         }
 
         // int
+        long significand = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean truncated = false;
         if (ch == '0') {
             store((char) ch);
             ch = read();
         } else {
             do {
                 store((char) ch);
+                if (digits < 19) {
+                    significand = significand * 10 + (ch - '0');
+                    digits++;
+                } else {
+                    exponent++;
+                    truncated |= ch != '0';
+                }
                 ch = read();
             } while (ch >= '0' && ch <= '9');
         }
+        integral = ch != '.' && ch != 'e' && ch != 'E';
+        // 18 digits always fit, longer values are left to BigDecimal
+        fitsLong = integral && digits <= 18;
+        longValue = negative ? -significand : significand;
 
         // frac
         if (ch == '.') {
-            int count = 0;
+            store((char) ch);
+            ch = read();
+            if (ch < '0' || ch > '9') {
+                throw new JsonParsingException("Unexpected Char="+ch);
+            }
             do {
                 store((char) ch);
+                if (digits < 19) {
+                    significand = significand * 10 + (ch - '0');
+                    exponent--;
+                    if (significand != 0) {
+                        digits++;       // leading zeros are not significant
+                    }
+                } else {
+                    truncated |= ch != '0';
+                }
                 ch = read();
-                count++;
             } while (ch >= '0' && ch <= '9');
-            if (count == 1) {
-                throw new JsonParsingException("Unexpected Char="+ch);
-            }
         }
 
         // exp
         if (ch == 'e' || ch == 'E') {
             store((char) ch);
             ch = read();
+            boolean negativeExp = ch == '-';
             if (ch == '+' || ch == '-') {
                 store((char) ch);
                 ch = read();
             }
+            int exp = 0;
             int count;
             for (count = 0; ch >= '0' && ch <= '9'; count++) {
                 store((char) ch);
+                if (exp < 100000) {     // way out of double's range already
+                    exp = exp * 10 + (ch - '0');
+                }
                 ch = read();
             }
             if (count == 0) {
                 throw new JsonParsingException("Unexpected Char="+ch);
             }
+            exponent += negativeExp ? -exp : exp;
+            hugeExponent = exp >= 100000;
+        } else {
+            hugeExponent = false;
         }
         unread(ch);
+        this.negative = negative;
+        this.significand = significand;
+        this.exponent = exponent;
+        this.truncated = truncated;
     }
 
-    private void readTrue() {
-        char ch1 = (char) read();
-        char ch2 = (char) read();
-        char ch3 = (char) read();
-    }
-
-    private void readFalse() {
-        char ch1 = (char) read();
-        char ch2 = (char) read();
-        char ch3 = (char) read();
-        char ch4 = (char) read();
-    }
-
-    private void readNull() {
-        char ch1 = (char) read();
-        char ch2 = (char) read();
-        char ch3 = (char) read();
+    // The first char of the literal is already read
+    private void readLiteral(String literal) {
+        if (!reader.readLiteral(literal)) {
+            throw new JsonParsingException("Unexpected literal, expected="+literal);
+        }
     }
 
+    // Returns null for fed input that doesn't have the next token entirely
     JsonToken nextToken() throws IOException {
-        
+        if (feedReader != null && !hasFedToken()) {
+            return null;
+        }
         reader.reset();
-        int ch = read();
-
-        // whitespace
-        while (ch == 0x20 || ch == 0x09 || ch == 0x0a || ch == 0x0d) {
-            ch = read();
+        int ch = pushbackChar;
+        if (ch != -1) {
+            pushbackChar = -1;
+            if (isWhitespace(ch)) {
+                ch = reader.readNonWhitespace();
+            }
+        } else {
+            ch = reader.readNonWhitespace();
         }
 
         switch (ch) {
@@ -250,45 +464,230 @@ final class JsonTokenizer implements Closeable {
                 return JsonToken.COMMA;
             case '"':
                 readString();
+                if (limited) {
+                    checkLength(false);
+                }
                 return JsonToken.STRING;
             case '-':
                 readNumber(ch);
+                if (limited) {
+                    checkLength(true);
+                }
                 return JsonToken.NUMBER;
             case 't':
-                readTrue();
+                readLiteral("true");
                 return JsonToken.TRUE;
             case 'f':
-                readFalse();
+                readLiteral("false");
                 return JsonToken.FALSE;
             case 'n':
-                readNull();
+                readLiteral("null");
                 return JsonToken.NULL;
             case ']':
                 return JsonToken.SQUARECLOSE;
             case '}':
                 return JsonToken.CURLYCLOSE;
+            case 0x1E:
+                return JsonToken.RECORD_SEPARATOR;
             default:
                 if (ch >= '0' && ch <= '9') {
                     readNumber(ch);
+                    if (limited) {
+                        checkLength(true);
+                    }
                     return JsonToken.NUMBER;
                 }
                 throw new JsonParsingException("Unexpected char="+(char)ch);
         }
     }
 
+    // Skips the rest of the object or array whose opening bracket is the
+    // last token. Only the brackets and strings are recognized, the
+    // skipped chars are not validated. Fed input is skipped only upto the
+    // bytes that are fed so far.
+    void skipStructure() {
+        reader.reset();
+        if (!reader.skipStructure()) {
+            if (feedReader != null && !feedReader.endOfInput) {
+                throw new JsonParsingException("JsonFeedParser#skipChildren() needs the entire value to be fed");
+            }
+            throw new JsonParsingException("Unexpected EOF");
+        }
+    }
+
     // returns string or number values
     String getValue() {
         return reader.getValue();
     }
+
+    // returns the current string value as a key name
+    String getKey() {
+        SymbolTable keyTable = this.keyTable;
+        if (keyTable == null) {
+            if (keyTableSize == 0) {
+                return reader.getValue();
+            }
+            keyTable = new SymbolTable(keyTableSize);
+            this.keyTable = keyTable;
+        }
+        return keyTable.get(reader.getCharSequence());
+    }
+
+    void setKeyTableSize(int keyTableSize) {
+        this.keyTableSize = keyTableSize;
+        this.keyTable = null;
+    }
+
+    // returns the current string value as a JsonString
+    JsonString getJsonString() {
+        return valueTable == null
+                ? new JsonStringImpl(reader.getValue())
+                : valueTable.get(reader.getCharSequence());
+    }
+
+    void setValueTable(JsonStringTable valueTable) {
+        this.valueTable = valueTable;
+    }
+
+    // returns a view of the current string or number value, it is valid
+    // until the next token is read
+    CharSequence getCharSequence() {
+        return reader.getCharSequence();
+    }
+
+    // true if the current number value has no fraction and exponent parts
+    boolean isIntegral() {
+        return integral;
+    }
+
+    // true if the current number value is integral and fits in a long
+    boolean isDefinitelyLong() {
+        return fitsLong;
+    }
+
+    // the value of the current number if isDefinitelyLong() is true
+    long getLongValue() {
+        return longValue;
+    }
+
+    // capacity of the char array of the current value, -1 if the reader
+    // doesn't keep the value in a char array
+    int getValueCapacity() {
+        return reader.getValueCapacity();
+    }
+
+    // the current number value as a JsonNumber of the variant for its shape.
+    // A number with a huge exponent is decoded now, so that a scale that
+    // doesn't fit in an int is reported while reading and not on first use.
+    JsonNumber getJsonNumber() {
+        if (fitsLong) {
+            return JsonNumberImpl.getJsonNumber(longValue);
+        }
+        String text = reader.getValue();
+        if (hugeExponent) {
+            try {
+                return JsonNumberImpl.getJsonNumber(text, new BigDecimal(text));
+            } catch (NumberFormatException nfe) {
+                throw new JsonParsingException("Number is out of range: "+text, nfe);
+            }
+        }
+        return JsonNumberImpl.getJsonNumber(text);
+    }
+
+    // the current number value correctly rounded to a double
+    double getDoubleValue() {
+        if (!truncated) {
+            double d = FastDoubleParser.toDouble(negative, significand, exponent);
+            if (!Double.isNaN(d)) {
+                return d;
+            }
+        }
+        return Double.parseDouble(reader.getValue());
+    }
     
-    private static interface TokenizerReader extends Closeable {
-        int readChar();
-        void storeChar(int ch);
-        void reset();
-        String getValue();
+    /*
+     * Source of chars for the tokenizer. The bulk operations are implemented
+     * using readChar() here, the readers override them to work directly on
+     * their buffers.
+     */
+    private static abstract class TokenizerReader implements Closeable {
+        // the buffers of the values don't grow once this is exceeded
+        int maxValueLength = Integer.MAX_VALUE;
+
+        abstract int readChar();
+        abstract void storeChar(int ch);
+        abstract void reset();
+        abstract String getValue();
+        abstract CharSequence getCharSequence();
+
+        int getValueCapacity() {
+            return -1;
+        }
+
+        // skips whitespace, and returns the next char
+        int readNonWhitespace() {
+            int ch;
+            do {
+                ch = readChar();
+            } while (isWhitespace(ch));
+            return ch;
+        }
+
+        // reads and stores the plain chars of a string, returns the next char
+        int readStringChars() {
+            int ch;
+            while (isPlainStringChar(ch = readChar())) {
+                storeChar(ch);
+            }
+            return ch;
+        }
+
+        // reads the rest of the literal whose first char is already read
+        boolean readLiteral(String literal) {
+            for (int i = 1; i < literal.length(); i++) {
+                if (readChar() != literal.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // reads upto the bracket that closes an already opened object or
+        // array, returns false if EOF is reached before it
+        boolean skipStructure() {
+            int depth = 1;
+            boolean inString = false;
+            boolean escaped = false;
+            int ch;
+            while ((ch = readChar()) != -1) {
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (ch == '\\') {
+                        escaped = true;
+                    } else if (ch == '"') {
+                        inString = false;
+                    }
+                } else if (ch == '"') {
+                    inString = true;
+                } else if (ch == '{' || ch == '[') {
+                    depth++;
+                } else if ((ch == '}' || ch == ']') && --depth == 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
     }
     
-    private static class BufReader implements TokenizerReader {
+    /*
+     * Reads characters in blocks into a buffer. A string/number value is
+     * kept in the buffer itself (unescaped in place) and is tracked using
+     * valuePtr, valueLength. When the buffer needs to be refilled in the
+     * middle of a value, the partial value is moved to the beginning of the
+     * buffer, and the buffer is doubled only if the value fills it entirely.
+     */
+    private static class BufReader extends TokenizerReader {
         // Buffer for parsing
         private char[] buf = new char[8192];
         private int length;
@@ -297,63 +696,129 @@ final class JsonTokenizer implements Closeable {
         // Current string/number starting ptr in the buffer and the length
         private int valuePtr = -1;
         private int valueLength;
+        private final CharArraySequence chars = new CharArraySequence();
         private final Reader reader;
 
-        boolean eof;
+        private boolean eof;
 
         BufReader(Reader reader) {
             this.reader = reader;
         }
 
-        public int readChar() {
-            if (eof) {
-                return -1;
-            } else if (curPtr < length) {
+        int readChar() {
+            if (curPtr < length) {
                 return buf[curPtr++];
-            } else {
+            }
+            return fillBuf() ? buf[curPtr++] : -1;
+        }
+
+        @Override
+        int readNonWhitespace() {
+            while (true) {
+                if (curPtr == length && !fillBuf()) {
+                    return -1;
+                }
+                int ch = buf[curPtr++];
+                if (!isWhitespace(ch)) {
+                    return ch;
+                }
+            }
+        }
+
+        @Override
+        int readStringChars() {
+            while (true) {
+                if (curPtr == length && !fillBuf()) {
+                    return -1;
+                }
+                int ch = buf[curPtr++];
+                if (!isPlainStringChar(ch)) {
+                    return ch;
+                }
                 if (valuePtr == -1) {
-                    // Not tracking any value. Use the entire buf
-                    curPtr = 0;
-                    length = 0;
-                } else if (valuePtr == 0 && valueLength == buf.length) {
-                    // partial value uses entire buf. Double the buf.
-                    assert length == buf.length;
-                    assert curPtr == buf.length;
-                    char[] temp = new char[2*buf.length];
-                    System.arraycopy(buf, 0, temp, 0, valueLength);
-                    buf = temp;
-                } else if (valuePtr == 0 && valueLength < buf.length) {
-                    // partial value (that is at the beginning of buf) uses part of buf
-                    curPtr = valueLength;
-                    length = valueLength;
-                } else {
-                    // Partial value uses part of buf
-                    // value is copied to the beginning of the buf
+                    valuePtr = curPtr-1;
+                }
+                buf[valuePtr+valueLength++] = (char)ch;
+            }
+        }
+
+        @Override
+        boolean skipStructure() {
+            int depth = 1;
+            boolean inString = false;
+            boolean escaped = false;
+            while (curPtr < length || fillBuf()) {
+                char[] buf = this.buf;
+                int length = this.length;
+                int i = curPtr;
+                while (i < length) {
+                    char ch = buf[i++];
+                    if (inString) {
+                        if (escaped) {
+                            escaped = false;
+                        } else if (ch == '\\') {
+                            escaped = true;
+                        } else if (ch == '"') {
+                            inString = false;
+                        }
+                    } else if (ch == '"') {
+                        inString = true;
+                    } else if (ch == '{' || ch == '[') {
+                        depth++;
+                    } else if ((ch == '}' || ch == ']') && --depth == 0) {
+                        curPtr = i;
+                        return true;
+                    }
+                }
+                curPtr = i;
+            }
+            return false;
+        }
+
+        private boolean fillBuf() {
+            if (eof) {
+                return false;
+            }
+            if (valuePtr == -1) {
+                // Not tracking any value. Use the entire buf
+                length = 0;
+            } else {
+                // Partial value is copied to the beginning of the buf, the
+                // chars that are already consumed after it are not needed
+                if (valuePtr != 0) {
                     System.arraycopy(buf, valuePtr, buf, 0, valueLength);
-                    length = valueLength;
-                    curPtr = valueLength;
                     valuePtr = 0;
                 }
-                // Now fill the buf starting from curPtr
-                while(curPtr <= length) {
-                    int read;
-                    try {
-                        read = reader.read(buf, curPtr, buf.length-length);
-                    } catch(IOException ioe) {
-                        throw new JsonException("I/O error", ioe);
-                    }
-                    if (read == -1) {
-                        eof = true;
-                        return -1;
-                    } else {
-                        length += read;
+                length = valueLength;
+                if (length == buf.length) {
+                    // partial value uses entire buf. Double the buf.
+                    if (length > maxValueLength) {
+                        throw tooLong(maxValueLength);
                     }
+                    char[] temp = new char[2*buf.length];
+                    System.arraycopy(buf, 0, temp, 0, length);
+                    buf = temp;
                 }
-                return buf[curPtr++];
             }
+            curPtr = length;
+            // Now fill the buf starting from curPtr
+            int read;
+            try {
+                do {
+                    read = reader.read(buf, length, buf.length-length);
+                } while (read == 0);
+            } catch(IOException ioe) {
+                throw new JsonException("I/O error while tokenizing", ioe);
+            }
+            if (read == -1) {
+                eof = true;
+                return false;
+            }
+            length += read;
+            return true;
         }
 
-        public void storeChar(int ch) {
+        void storeChar(int ch) {
             if (valuePtr == -1) {
                 valuePtr = curPtr-1;
             }
@@ -361,12 +826,17 @@ final class JsonTokenizer implements Closeable {
             valueLength++;
         }
 
-        public void reset() {
+        void reset() {
+            valuePtr = -1;
+            valueLength = 0;
+        }
 
+        String getValue() {
+            return valuePtr == -1 ? "" : new String(buf, valuePtr, valueLength);
         }
 
-        public String getValue() {
-            return null;
+        CharSequence getCharSequence() {
+            return chars.set(buf, valuePtr == -1 ? 0 : valuePtr, valueLength);
         }
 
         @Override
@@ -375,16 +845,650 @@ final class JsonTokenizer implements Closeable {
         }
     }
     
-    private static class DirectReader implements TokenizerReader {
+    /*
+     * Reads UTF-8 encoded bytes in blocks and works directly on them. All the
+     * JSON structural chars are ASCII, so only the non-ASCII bytes in the
+     * string values are decoded to chars. A malformed byte sequence is
+     * replaced with U+FFFD like InputStreamReader does. A string/number
+     * value is collected in a char buffer that is reused for all values.
+     */
+    private static class Utf8Reader extends TokenizerReader {
+        private static final char REPLACEMENT_CHAR = '\uFFFD';
+
+        byte[] buf;
+        int pos;
+        int limit;
+        private final InputStream in;
+        private boolean eof;
+
+        // Current string/number value
+        char[] value = new char[128];
+        int valueLength;
+        private final CharArraySequence chars = new CharArraySequence();
+
+        // Low surrogate of a supplementary char, that is not read yet
+        char pendingLow;
+
+        Utf8Reader(InputStream in) {
+            this.in = in;
+            this.buf = new byte[8192];
+        }
+
+        // The whole input is already read into buf
+        Utf8Reader(InputStream in, byte[] buf, int length) {
+            this.in = in;
+            this.buf = buf;
+            this.limit = length;
+            this.eof = true;
+        }
+
+        boolean fillBuf() {
+            if (eof) {
+                return false;
+            }
+            int read;
+            try {
+                do {
+                    read = in.read(buf, 0, buf.length);
+                } while (read == 0);
+            } catch(IOException ioe) {
+                throw new JsonException("I/O error while tokenizing", ioe);
+            }
+            if (read == -1) {
+                eof = true;
+                return false;
+            }
+            pos = 0;
+            limit = read;
+            return true;
+        }
+
+        int readChar() {
+            if (pendingLow != 0) {
+                char low = pendingLow;
+                pendingLow = 0;
+                return low;
+            }
+            if (pos == limit && !fillBuf()) {
+                return -1;
+            }
+            int b = buf[pos++];
+            return b >= 0 ? b : decode(b);
+        }
+
+        @Override
+        int readNonWhitespace() {
+            if (pendingLow != 0) {
+                return readChar();
+            }
+            while (true) {
+                if (pos == limit && !fillBuf()) {
+                    return -1;
+                }
+                int b = buf[pos++];
+                if (!isWhitespace(b)) {
+                    return b >= 0 ? b : decode(b);
+                }
+            }
+        }
+
+        @Override
+        int readStringChars() {
+            if (pendingLow != 0) {
+                storeChar(pendingLow);
+                pendingLow = 0;
+            }
+            char[] value = this.value;
+            int valueLength = this.valueLength;
+            try {
+                while (true) {
+                    if (pos == limit && !fillBuf()) {
+                        return -1;
+                    }
+                    // ASCII fast path, bytes are copied as chars. The copy
+                    // is bounded by the free space of the value, so that the
+                    // value grows as the string needs and not to the size of
+                    // the block, which is the whole input for a heap buffer.
+                    byte[] buf = this.buf;
+                    int i = pos;
+                    if (valueLength == value.length) {
+                        this.valueLength = valueLength;
+                        value = growValue(1);
+                    }
+                    int end = Math.min(this.limit, i + value.length - valueLength);
+                    int b = 0;
+                    while (i < end && (b = buf[i]) >= 0x20 && b != '"' && b != '\\' && b != 0x7F) {
+                        value[valueLength++] = (char)b;
+                        i++;
+                    }
+                    pos = i;
+                    if (i == end) {
+                        // end of the block, or the value is full
+                        continue;
+                    }
+                    if (b >= 0) {
+                        // quote, backslash or a control char
+                        pos++;
+                        return b;
+                    }
+                    pos++;
+                    this.valueLength = valueLength;
+                    int ch = decode(b);
+                    if (!isPlainStringChar(ch)) {
+                        return ch;
+                    }
+                    storeChar(ch);
+                    if (pendingLow != 0) {
+                        storeChar(pendingLow);
+                        pendingLow = 0;
+                    }
+                    value = this.value;
+                    valueLength = this.valueLength;
+                }
+            } finally {
+                this.valueLength = valueLength;
+            }
+        }
+
+        // Bytes of multi-byte sequences are never ASCII, so the brackets and
+        // quotes are found without decoding
+        @Override
+        boolean skipStructure() {
+            int depth = 1;
+            boolean inString = false;
+            boolean escaped = false;
+            while (pos < limit || fillBuf()) {
+                byte[] buf = this.buf;
+                int limit = this.limit;
+                int i = pos;
+                while (i < limit) {
+                    int b = buf[i++];
+                    if (inString) {
+                        if (escaped) {
+                            escaped = false;
+                        } else if (b == '\\') {
+                            escaped = true;
+                        } else if (b == '"') {
+                            inString = false;
+                        }
+                    } else if (b == '"') {
+                        inString = true;
+                    } else if (b == '{' || b == '[') {
+                        depth++;
+                    } else if ((b == '}' || b == ']') && --depth == 0) {
+                        pos = i;
+                        return true;
+                    }
+                }
+                pos = i;
+            }
+            return false;
+        }
+
+        // Decodes a multi-byte sequence whose first byte is already read
+        int decode(int b1) {
+            if ((b1 & 0xE0) == 0xC0) {
+                int b2 = readContinuation();
+                if (b2 == -1 || (b1 & 0x1E) == 0) {
+                    return REPLACEMENT_CHAR;
+                }
+                return ((b1 & 0x1F) << 6) | b2;
+            } else if ((b1 & 0xF0) == 0xE0) {
+                int b2 = readContinuation();
+                if (b2 == -1) {
+                    return REPLACEMENT_CHAR;
+                }
+                int b3 = readContinuation();
+                if (b3 == -1) {
+                    return REPLACEMENT_CHAR;
+                }
+                int ch = ((b1 & 0x0F) << 12) | (b2 << 6) | b3;
+                if (ch < 0x800 || (ch >= Character.MIN_SURROGATE && ch <= Character.MAX_SURROGATE)) {
+                    return REPLACEMENT_CHAR;
+                }
+                return ch;
+            } else if ((b1 & 0xF8) == 0xF0) {
+                int b2 = readContinuation();
+                if (b2 == -1) {
+                    return REPLACEMENT_CHAR;
+                }
+                int b3 = readContinuation();
+                if (b3 == -1) {
+                    return REPLACEMENT_CHAR;
+                }
+                int b4 = readContinuation();
+                if (b4 == -1) {
+                    return REPLACEMENT_CHAR;
+                }
+                int cp = ((b1 & 0x07) << 18) | (b2 << 12) | (b3 << 6) | b4;
+                if (cp < Character.MIN_SUPPLEMENTARY_CODE_POINT || cp > Character.MAX_CODE_POINT) {
+                    return REPLACEMENT_CHAR;
+                }
+                cp -= Character.MIN_SUPPLEMENTARY_CODE_POINT;
+                pendingLow = (char) (Character.MIN_LOW_SURROGATE + (cp & 0x3FF));
+                return Character.MIN_HIGH_SURROGATE + (cp >>> 10);
+            }
+            return REPLACEMENT_CHAR;
+        }
+
+        // Returns the 6 bits of a continuation byte, or -1 if the next byte
+        // is not a continuation byte. Such a byte is not consumed.
+        private int readContinuation() {
+            if (pos == limit && !fillBuf()) {
+                return -1;
+            }
+            int b = buf[pos];
+            if ((b & 0xC0) != 0x80) {
+                return -1;
+            }
+            pos++;
+            return b & 0x3F;
+        }
+
+        @Override
+        int getValueCapacity() {
+            return value.length;
+        }
+
+        char[] growValue(int minFree) {
+            if (valueLength > maxValueLength) {
+                throw tooLong(maxValueLength);
+            }
+            char[] temp = new char[Math.max(2*value.length, valueLength+minFree)];
+            System.arraycopy(value, 0, temp, 0, valueLength);
+            value = temp;
+            return temp;
+        }
+
+        void storeChar(int ch) {
+            if (valueLength == value.length) {
+                growValue(1);
+            }
+            value[valueLength++] = (char)ch;
+        }
+
+        void reset() {
+            valueLength = 0;
+        }
+
+        String getValue() {
+            return new String(value, 0, valueLength);
+        }
+
+        CharSequence getCharSequence() {
+            return chars.set(value, 0, valueLength);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /*
+     * Reads a range of UTF-8 bytes of an array, the range is changed
+     * between the values.
+     */
+    private static class ArrayReader extends Utf8Reader {
+
+        ArrayReader(byte[] buf) {
+            super(null, buf, 0);
+        }
+
+        void setRange(int start, int end) {
+            pos = start;
+            limit = end;
+            pendingLow = 0;
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+    }
+
+    /*
+     * Reads the UTF-8 bytes of a sequence of buffers. The backing array of
+     * a heap buffer becomes the byte buffer of the reader, so its bytes
+     * are tokenized in place. Direct and read-only buffers have no
+     * accessible array, their bytes are moved to a byte buffer in blocks
+     * with bulk gets. A token that spans the buffers is read across them
+     * like across the reads of a stream.
+     */
+    private static class ByteBufferReader extends Utf8Reader {
+        private final ByteBuffer[] segments;
+        private int next;               // index of the next segment
+        private ByteBuffer direct;      // current segment without an array
+        private byte[] block;           // bulk gets from direct segments
+
+        ByteBufferReader(ByteBuffer[] segments, int skip) {
+            super(null, new byte[0], 0);
+            this.segments = new ByteBuffer[segments.length];
+            for (int i = 0; i < segments.length; i++) {
+                this.segments[i] = segments[i].duplicate();
+            }
+            while (skip > 0 && (pos < limit || fillBuf())) {
+                int n = Math.min(skip, limit - pos);
+                pos += n;
+                skip -= n;
+            }
+        }
+
+        @Override
+        boolean fillBuf() {
+            while (true) {
+                if (direct != null && direct.hasRemaining()) {
+                    int length = Math.min(block.length, direct.remaining());
+                    direct.get(block, 0, length);
+                    buf = block;
+                    pos = 0;
+                    limit = length;
+                    return true;
+                }
+                if (next == segments.length) {
+                    return false;
+                }
+                ByteBuffer segment = segments[next++];
+                if (segment.hasArray()) {
+                    direct = null;
+                    if (segment.hasRemaining()) {
+                        buf = segment.array();
+                        pos = segment.arrayOffset() + segment.position();
+                        limit = segment.arrayOffset() + segment.limit();
+                        return true;
+                    }
+                } else {
+                    direct = segment;
+                    if (block == null) {
+                        block = new byte[8192];
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+    }
+
+    /*
+     * Keeps the bytes that are fed to it and not parsed yet. A token is
+     * tokenized only when it is entirely in the fed bytes, so that the
+     * tokenizer never has to wait for input in the middle of a token. To
+     * find that cheaply, the bytes of a pending token are examined only
+     * once: the examined position and whether the last byte is a
+     * backslash in a string are kept between the feeds.
+     */
+    private static class FeedReader extends Utf8Reader {
+        boolean endOfInput;
+        // position upto which the pending token is examined, -1 if there
+        // is no pending token
+        private int probe = -1;
+        private boolean escaped;
+
+        FeedReader() {
+            super(null, new byte[8192], 0);
+        }
+
+        void feed(byte[] b, int off, int len) {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            ensureSpace(len);
+            System.arraycopy(b, off, buf, limit, len);
+            limit += len;
+        }
+
+        void feed(ByteBuffer buffer) {
+            int len = buffer.remaining();
+            ensureSpace(len);
+            buffer.get(buf, limit, len);
+            limit += len;
+        }
+
+        // Discards the parsed bytes, and grows the buffer if it is still
+        // not enough
+        private void ensureSpace(int len) {
+            if (endOfInput) {
+                throw new IllegalStateException("JsonFeedParser#endOfInput() is already called");
+            }
+            if (buf.length - limit >= len) {
+                return;
+            }
+            int unparsed = limit - pos;
+            byte[] dest = unparsed + len <= buf.length
+                    ? buf : new byte[Math.max(2*buf.length, unparsed + len)];
+            System.arraycopy(buf, pos, dest, 0, unparsed);
+            if (probe != -1) {
+                probe -= pos;
+            }
+            buf = dest;
+            pos = 0;
+            limit = unparsed;
+        }
+
+        // All the fed bytes are already in the buffer
+        @Override
+        boolean fillBuf() {
+            return false;
+        }
+
+        // true if the next token is entirely in the fed bytes, or if all
+        // the input is fed
+        boolean hasToken() {
+            if (probe == -1) {
+                while (pos < limit && isWhitespace(buf[pos])) {
+                    pos++;
+                }
+                if (pos == limit) {
+                    return endOfInput;
+                }
+                probe = pos + 1;
+                escaped = false;
+            }
+            int first = buf[pos];
+            int i = probe;
+            boolean complete;
+            if (first == '"') {
+                complete = false;
+                for (; i < limit; i++) {
+                    int b = buf[i];
+                    if (escaped) {
+                        escaped = false;
+                    } else if (b == '\\') {
+                        escaped = true;
+                    } else if (b == '"') {
+                        complete = true;
+                        break;
+                    }
+                }
+            } else if (first == '-' || (first >= '0' && first <= '9')) {
+                // a number ends at a char that is not part of it
+                complete = false;
+                for (; i < limit; i++) {
+                    int b = buf[i];
+                    if (!(b >= '0' && b <= '9' || b == '.' || b == 'e' || b == 'E'
+                            || b == '+' || b == '-')) {
+                        complete = true;
+                        break;
+                    }
+                }
+            } else if (first == 't' || first == 'n') {
+                complete = limit - pos >= 4;
+            } else if (first == 'f') {
+                complete = limit - pos >= 5;
+            } else {
+                complete = true;
+            }
+            if (complete || endOfInput) {
+                probe = -1;
+                return true;
+            }
+            probe = Math.max(i, probe);
+            return false;
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+    }
+
+    /*
+     * Walks the structural index of the input, the positions in the index
+     * are used to skip whitespace and to find the end of strings. String
+     * chars and literals are compared 8 and 4 bytes at a time.
+     */
+    private static class IndexReader extends Utf8Reader {
+        private final JsonStructuralIndex index;
+        private final ByteBuffer bigEndianWords;
+        private final int[] positions;
+        private final int size;
+        private int next;           // next position in the index
+
+        IndexReader(InputStream in, JsonStructuralIndex index) {
+            super(in, index.buf, index.length);
+            this.index = index;
+            this.bigEndianWords = ByteBuffer.wrap(index.buf);
+            this.positions = index.positions;
+            this.size = index.size;
+        }
+
+        // Skips the positions that are already read using readChar()
+        private int nextPosition() {
+            int next = this.next;
+            while (next < size && positions[next] < pos) {
+                next++;
+            }
+            this.next = next;
+            return next < size ? positions[next] : limit;
+        }
+
+        @Override
+        int readNonWhitespace() {
+            if (pendingLow != 0) {
+                return readChar();
+            }
+            int p = nextPosition();
+            if (p == limit) {
+                pos = limit;
+                return -1;
+            }
+            next++;
+            pos = p + 1;
+            int b = buf[p];
+            return b >= 0 ? b : decode(b);
+        }
+
+        @Override
+        int readStringChars() {
+            if (pendingLow != 0) {
+                storeChar(pendingLow);
+                pendingLow = 0;
+            }
+            int end = nextPosition();     // closing quote
+            while (true) {
+                // plain ASCII chars, 8 at a time
+                while (pos + 8 <= end && JsonStructuralIndex.isPlainAscii(index.words.getLong(pos))) {
+                    if (value.length - valueLength < 8) {
+                        growValue(8);
+                    }
+                    char[] value = this.value;
+                    int valueLength = this.valueLength;
+                    for (int k = 0; k < 8; k++) {
+                        value[valueLength + k] = (char) buf[pos + k];
+                    }
+                    this.valueLength = valueLength + 8;
+                    pos += 8;
+                }
+                if (pos == end) {
+                    if (end == limit) {
+                        return -1;
+                    }
+                    pos++;
+                    next++;
+                    return '"';
+                }
+                int b = buf[pos++];
+                if (b >= 0) {
+                    if (!isPlainStringChar(b)) {
+                        return b;
+                    }
+                    storeChar(b);
+                } else {
+                    int ch = decode(b);
+                    if (!isPlainStringChar(ch)) {
+                        return ch;
+                    }
+                    storeChar(ch);
+                    if (pendingLow != 0) {
+                        storeChar(pendingLow);
+                        pendingLow = 0;
+                    }
+                }
+            }
+        }
+
+        // Only the positions in the index are looked at, a quote position
+        // is always followed by the position of the closing quote
+        @Override
+        boolean skipStructure() {
+            nextPosition();
+            int depth = 1;
+            for (int n = next; n < size; n++) {
+                int p = positions[n];
+                byte b = buf[p];
+                if (b == '"') {
+                    n++;
+                } else if (b == '{' || b == '[') {
+                    depth++;
+                } else if ((b == '}' || b == ']') && --depth == 0) {
+                    next = n + 1;
+                    pos = p + 1;
+                    return true;
+                }
+            }
+            next = size;
+            pos = limit;
+            return false;
+        }
+
+        @Override
+        boolean readLiteral(String literal) {
+            // the first char of the literal is at pos-1
+            int start = pos - 1;
+            int length = literal.length();
+            if (start + length > limit) {
+                return false;
+            }
+            int expected = (literal.charAt(length-4) << 24) | (literal.charAt(length-3) << 16)
+                    | (literal.charAt(length-2) << 8) | literal.charAt(length-1);
+            if (bigEndianWords.getInt(start + length - 4) != expected) {
+                return false;
+            }
+            pos = start + length;
+            // The index has only the start of the literal, the chars after
+            // it are not looked at by readNonWhitespace(). The literal must
+            // end where the next token or whitespace starts.
+            if (pos == limit || nextPosition() == pos) {
+                return true;
+            }
+            byte b = buf[pos];
+            return isWhitespace(b) || b == ',' || b == ']' || b == '}' || b == ':';
+        }
+    }
+
+    private static class DirectReader extends TokenizerReader {
         private final Reader reader;
-        private StringBuilder builder;
+        private final StringBuilder builder;
 
         DirectReader(Reader reader) {
             this.reader = reader;
             this.builder = new StringBuilder();
         }
         
-        public int readChar() {
+        int readChar() {
             try {
                 return reader.read();
             } catch (IOException ioe) {
@@ -392,20 +1496,25 @@ final class JsonTokenizer implements Closeable {
             }
         }
 
-        public void storeChar(int ch) {
+        void storeChar(int ch) {
+            if (builder.length() == maxValueLength) {
+                throw tooLong(maxValueLength);
+            }
             builder.append((char)ch);
         }
 
-        public void reset() {
-            if (builder.length() != 0 ) {
-                builder = new StringBuilder();
-            }
+        void reset() {
+            builder.setLength(0);
         }
 
-        public String getValue() {
+        String getValue() {
             return builder.toString();
         }
 
+        CharSequence getCharSequence() {
+            return builder;
+        }
+
         @Override
         public void close() throws IOException {
             reader.close();
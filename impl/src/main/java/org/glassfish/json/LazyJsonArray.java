@@ -0,0 +1,222 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import javax.json.JsonWriter;
+import javax.json.stream.JsonParsingException;
+import java.io.StringWriter;
+import java.util.AbstractList;
+
+/**
+ * JsonArray view of an array in a {@link LazyJsonDocument}. The elements
+ * are found the first time the array is accessed, and an element is
+ * decoded the first time it is accessed, and is cached. Like
+ * {@link LazyJsonObject}, it may be shared by threads without
+ * synchronization.
+ *
+ * @author Jitendra Kotamraju
+ */
+final class LazyJsonArray extends AbstractList<JsonValue> implements JsonArray {
+    private final LazyJsonDocument doc;
+    private final int open;
+    private volatile Elements elements;
+
+    LazyJsonArray(LazyJsonDocument doc, int open) {
+        this.doc = doc;
+        this.open = open;
+    }
+
+    private static final class Elements {
+        final int size;
+        final int[] indexes;            // value positions in the document
+        final JsonValue[] values;       // decoded values
+
+        Elements(int size, int[] indexes) {
+            this.size = size;
+            this.indexes = indexes;
+            this.values = new JsonValue[size];
+        }
+    }
+
+    private Elements elements() {
+        Elements e = elements;
+        if (e == null) {
+            e = elements = findElements();
+        }
+        return e;
+    }
+
+    private Elements findElements() {
+        int close = doc.close(open);
+        int[] indexes = new int[8];
+        int size = 0;
+        int i = open + 1;
+        if (i == close) {
+            return new Elements(0, indexes);
+        }
+        while (true) {
+            if (!doc.isValue(i)) {
+                throw new JsonParsingException("Expecting a value Got ="+doc.charAt(i));
+            }
+            if (size == indexes.length) {
+                int[] temp = new int[2*size];
+                System.arraycopy(indexes, 0, temp, 0, size);
+                indexes = temp;
+            }
+            indexes[size++] = i;
+
+            i = doc.next(i);
+            if (i == close) {
+                return new Elements(size, indexes);
+            }
+            if (doc.charAt(i) != ',') {
+                throw new JsonParsingException("Expecting Tokens=[COMMA, SQUARECLOSE] Got ="+doc.charAt(i));
+            }
+            i++;
+        }
+    }
+
+    @Override
+    public JsonValue get(int index) {
+        Elements e = elements();
+        if (index < 0 || index >= e.size) {
+            throw new IndexOutOfBoundsException("Index: "+index+", Size: "+e.size);
+        }
+        JsonValue value = e.values[index];
+        if (value == null) {
+            value = e.values[index] = doc.value(e.indexes[index]);
+        }
+        return value;
+    }
+
+    @Override
+    public int size() {
+        return elements().size;
+    }
+
+    @Override
+    public JsonObject getObject(int index) {
+        return (JsonObject) get(index);
+    }
+
+    @Override
+    public JsonNumber getNumber(int index) {
+        return (JsonNumber) get(index);
+    }
+
+    @Override
+    public JsonArray getArray(int index) {
+        return (JsonArray) get(index);
+    }
+
+    @Override
+    public String getString(int index) {
+        return ((JsonString) get(index)).getValue();
+    }
+
+    @Override
+    public String getString(int index, String defaultValue) {
+        JsonValue value = get(index);
+        if (value instanceof JsonString) {
+            return ((JsonString) value).getValue();
+        }
+        return defaultValue;
+    }
+
+    @Override
+    public int getInt(int index) {
+        return ((JsonNumber) get(index)).intValue();
+    }
+
+    @Override
+    public int getInt(int index, int defaultValue) {
+        JsonValue value = get(index);
+        if (value instanceof JsonNumber) {
+            return ((JsonNumber) value).intValue();
+        }
+        return defaultValue;
+    }
+
+    @Override
+    public boolean getBoolean(int index) {
+        JsonValue jsonValue = get(index);
+        if (jsonValue == JsonValue.TRUE) {
+            return true;
+        } else if (jsonValue == JsonValue.FALSE) {
+            return false;
+        } else {
+            throw new ClassCastException();
+        }
+    }
+
+    @Override
+    public boolean getBoolean(int index, boolean defaultValue) {
+        if (index < 0 || index >= size()) {
+            return defaultValue;
+        }
+        JsonValue value = get(index);
+        if (value == JsonValue.TRUE) {
+            return true;
+        } else if (value == JsonValue.FALSE) {
+            return false;
+        }
+        return defaultValue;
+    }
+
+    @Override
+    public ValueType getValueType() {
+        return ValueType.ARRAY;
+    }
+
+    @Override
+    public String toString() {
+        StringWriter sw = new StringWriter();
+        JsonWriter jw = new JsonWriter(sw);
+        jw.write(this);
+        jw.close();
+        return sw.toString();
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+import javax.json.JsonException;
+import javax.json.JsonValue;
+import javax.json.stream.JsonParsingException;
+import java.io.IOException;
+
+/**
+ * UTF-8 encoded JSON text in memory together with its structural index,
+ * that backs the {@link LazyJsonObject} and {@link LazyJsonArray} views.
+ * A single pass over the index matches the brackets of the nested objects
+ * and arrays, so that a view skips a nested value without looking at it.
+ * Nothing else is decoded until a view asks for a value.
+ *
+ * <p>
+ * The values are located by their index in {@link #positions}: an object
+ * or array by its opening bracket, a string by its opening quote and a
+ * number or literal by its first char.
+ *
+ * @author Jitendra Kotamraju
+ */
+final class LazyJsonDocument {
+    final byte[] buf;
+    final int length;
+    final int[] positions;
+    final int size;
+    private final int[] match;              // index of the matching bracket
+    private final int first;                // index of the first value
+    private final JsonTokenizer tokenizer;  // guarded by this
+
+    LazyJsonDocument(JsonStructuralIndex index, int bomLength) {
+        this.buf = index.buf;
+        this.length = index.length;
+        this.positions = index.positions;
+        this.size = index.size;
+        this.match = new int[size];
+        this.tokenizer = new JsonTokenizer(buf);
+
+        int i = 0;
+        while (i < size && positions[i] < bomLength) {
+            i++;
+        }
+        this.first = i;
+        matchBrackets();
+    }
+
+    private void matchBrackets() {
+        int[] stack = new int[32];
+        int depth = 0;
+        for (int i = first; i < size; i++) {
+            int ch = buf[positions[i]];
+            if (ch == '{' || ch == '[') {
+                if (depth == stack.length) {
+                    int[] temp = new int[2*stack.length];
+                    System.arraycopy(stack, 0, temp, 0, depth);
+                    stack = temp;
+                }
+                stack[depth++] = i;
+            } else if (ch == '}' || ch == ']') {
+                if (depth == 0 || buf[positions[stack[depth-1]]] != (ch == '}' ? '{' : '[')) {
+                    throw new JsonParsingException("Unexpected char="+(char)ch);
+                }
+                int open = stack[--depth];
+                match[open] = i;
+                match[i] = open;
+                if (depth == 0) {
+                    return;         // rest of the input is not read, as in JsonReader
+                }
+            }
+        }
+        if (depth != 0) {
+            throw new JsonParsingException("Unexpected EOF");
+        }
+    }
+
+    /**
+     * Returns the top-level object or array, or null if there is no value
+     */
+    JsonValue root() {
+        if (first == size) {
+            return null;
+        }
+        int ch = buf[positions[first]];
+        if (ch != '{' && ch != '[') {
+            throw new JsonParsingException("Expecting Tokens=[CURLYOPEN, SQUAREOPEN] Got ="+(char)ch);
+        }
+        return value(first);
+    }
+
+    // index of the closing bracket of the object or array at i
+    int close(int i) {
+        return match[i];
+    }
+
+    // index of the value that follows the value at i
+    int next(int i) {
+        int ch = buf[positions[i]];
+        if (ch == '{' || ch == '[') {
+            return match[i] + 1;
+        } else if (ch == '"') {
+            return i + 2;
+        }
+        return i + 1;
+    }
+
+    // true if a value starts at i
+    boolean isValue(int i) {
+        if (i >= size) {
+            return false;
+        }
+        int ch = buf[positions[i]];
+        return ch != ',' && ch != ':' && ch != '}' && ch != ']';
+    }
+
+    char charAt(int i) {
+        return i < size ? (char) buf[positions[i]] : (char) -1;
+    }
+
+    /**
+     * Decodes the value at i. Objects and arrays are returned as views,
+     * strings and numbers are validated and decoded by the tokenizer.
+     */
+    JsonValue value(int i) {
+        int start = positions[i];
+        switch (buf[start]) {
+            case '{':
+                return new LazyJsonObject(this, i);
+            case '[':
+                return new LazyJsonArray(this, i);
+            case '"':
+                return new JsonStringImpl(string(i));
+            default:
+                return atom(i);
+        }
+    }
+
+    /**
+     * Decodes the string at i. Strings of printable ASCII chars without
+     * escapes, that include most of the keys, are copied directly.
+     */
+    String string(int i) {
+        int start = positions[i] + 1;
+        int end = positions[i+1];
+        char[] chars = new char[end - start];
+        for (int j = start; j < end; j++) {
+            int ch = buf[j];
+            if (ch < 0x20 || ch == 0x7F || ch == '\\') {      // negative for non-ASCII
+                synchronized (this) {
+                    tokenizer.setRange(start - 1, end + 1);
+                    next();
+                    return tokenizer.getValue();
+                }
+            }
+            chars[j - start] = (char) ch;
+        }
+        return new String(chars);
+    }
+
+    private synchronized JsonValue atom(int i) {
+        int start = positions[i];
+        int end = i + 1 < size ? positions[i+1] : length;
+        tokenizer.setRange(start, end);
+        JsonTokenizer.JsonToken token = next();
+        JsonValue value;
+        switch (token) {
+            case NUMBER:
+                value = tokenizer.getJsonNumber();
+                break;
+            case TRUE:
+                value = JsonValue.TRUE;
+                break;
+            case FALSE:
+                value = JsonValue.FALSE;
+                break;
+            case NULL:
+                value = JsonValue.NULL;
+                break;
+            default:
+                throw new JsonParsingException("Unexpected token="+token);
+        }
+        token = next();
+        if (token != JsonTokenizer.JsonToken.EOF) {
+            throw new JsonParsingException("Unexpected token="+token);
+        }
+        return value;
+    }
+
+    private JsonTokenizer.JsonToken next() {
+        try {
+            return tokenizer.nextToken();
+        } catch (IOException ioe) {
+            throw new JsonException("I/O error while parsing JSON", ioe);
+        }
+    }
+}
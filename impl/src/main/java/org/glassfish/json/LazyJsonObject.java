@@ -0,0 +1,340 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import javax.json.JsonWriter;
+import javax.json.stream.JsonParsingException;
+import java.io.StringWriter;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * JsonObject view of an object in a {@link LazyJsonDocument}. The members
+ * are found, and the names are decoded, the first time the object is
+ * accessed. A value is decoded the first time it is accessed, and is
+ * cached. A nested object or array is another view, so only the values
+ * that are accessed are ever decoded.
+ *
+ * <p>
+ * Views may be shared by threads without synchronization. The members are
+ * published through a volatile field, and a value that is decoded by two
+ * threads at the same time is decoded twice into equal immutable values.
+ *
+ * @author Jitendra Kotamraju
+ */
+final class LazyJsonObject extends AbstractMap<String, JsonValue> implements JsonObject {
+    private final LazyJsonDocument doc;
+    private final int open;
+    private volatile Members members;
+
+    LazyJsonObject(LazyJsonDocument doc, int open) {
+        this.doc = doc;
+        this.open = open;
+    }
+
+    private static final class Members {
+        final int size;
+        final String[] names;
+        final int[] indexes;            // value positions in the document
+        final int[] table;              // member + 1 hashed by name, 0 if free
+        final JsonValue[] values;       // decoded values
+
+        Members(int size, String[] names, int[] indexes, int[] table) {
+            this.size = size;
+            this.names = names;
+            this.indexes = indexes;
+            this.table = table;
+            this.values = new JsonValue[size];
+        }
+    }
+
+    private Members members() {
+        Members m = members;
+        if (m == null) {
+            m = members = findMembers();
+        }
+        return m;
+    }
+
+    /*
+     * Walks the index from the opening to the closing bracket. A name that
+     * occurs again replaces the value of the earlier member, as in
+     * JsonObjectBuilder.
+     */
+    private Members findMembers() {
+        int close = doc.close(open);
+        String[] names = new String[8];
+        int[] indexes = new int[8];
+        int[] table = new int[16];
+        int size = 0;
+        int i = open + 1;
+        if (i == close) {
+            return new Members(0, names, indexes, table);
+        }
+        while (true) {
+            if (doc.charAt(i) != '"') {
+                throw new JsonParsingException("Expecting Tokens=[STRING] Got ="+doc.charAt(i));
+            }
+            String name = doc.string(i);
+            i += 2;
+            if (doc.charAt(i) != ':') {
+                throw new JsonParsingException("Expecting Tokens=[COLON] Got ="+doc.charAt(i));
+            }
+            i++;
+            if (!doc.isValue(i)) {
+                throw new JsonParsingException("Expecting a value Got ="+doc.charAt(i));
+            }
+
+            int slot = slot(table, names, name);
+            if (table[slot] != 0) {
+                indexes[table[slot] - 1] = i;
+            } else {
+                if (size == names.length) {
+                    String[] tempNames = new String[2*size];
+                    System.arraycopy(names, 0, tempNames, 0, size);
+                    names = tempNames;
+                    int[] tempIndexes = new int[2*size];
+                    System.arraycopy(indexes, 0, tempIndexes, 0, size);
+                    indexes = tempIndexes;
+                }
+                names[size] = name;
+                indexes[size] = i;
+                table[slot] = ++size;
+                if (2*size > table.length) {
+                    table = rehash(names, size, 2*table.length);
+                }
+            }
+
+            i = doc.next(i);
+            if (i == close) {
+                return new Members(size, names, indexes, table);
+            }
+            if (doc.charAt(i) != ',') {
+                throw new JsonParsingException("Expecting Tokens=[COMMA, CURLYCLOSE] Got ="+doc.charAt(i));
+            }
+            i++;
+        }
+    }
+
+    // slot of the name, or the free slot where it would be added
+    private static int slot(int[] table, String[] names, Object name) {
+        int mask = table.length - 1;
+        int slot = name.hashCode() & mask;
+        while (table[slot] != 0 && !names[table[slot] - 1].equals(name)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int[] rehash(String[] names, int size, int length) {
+        int[] table = new int[length];
+        for (int k = 0; k < size; k++) {
+            int mask = length - 1;
+            int slot = names[k].hashCode() & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = k + 1;
+        }
+        return table;
+    }
+
+    private JsonValue value(Members m, int k) {
+        JsonValue value = m.values[k];
+        if (value == null) {
+            value = m.values[k] = doc.value(m.indexes[k]);
+        }
+        return value;
+    }
+
+    @Override
+    public JsonValue get(Object name) {
+        if (name == null) {
+            return null;
+        }
+        Members m = members();
+        int k = m.table[slot(m.table, m.names, name)];
+        return k == 0 ? null : value(m, k - 1);
+    }
+
+    @Override
+    public boolean containsKey(Object name) {
+        if (name == null) {
+            return false;
+        }
+        Members m = members();
+        return m.table[slot(m.table, m.names, name)] != 0;
+    }
+
+    @Override
+    public int size() {
+        return members().size;
+    }
+
+    @Override
+    public JsonObject getObject(String name) {
+        return (JsonObject) get(name);
+    }
+
+    @Override
+    public JsonNumber getNumber(String name) {
+        return (JsonNumber) get(name);
+    }
+
+    @Override
+    public JsonArray getArray(String name) {
+        return (JsonArray) get(name);
+    }
+
+    @Override
+    public String getString(String name) {
+        return ((JsonString) get(name)).getValue();
+    }
+
+    @Override
+    public String getString(String name, String defaultValue) {
+        JsonValue value = get(name);
+        if (value instanceof JsonString) {
+            return ((JsonString) value).getValue();
+        }
+        return defaultValue;
+    }
+
+    @Override
+    public int getInt(String name) {
+        return getNumber(name).intValue();
+    }
+
+    @Override
+    public int getInt(String name, int defaultValue) {
+        JsonValue value = get(name);
+        if (value instanceof JsonNumber) {
+            return ((JsonNumber) value).intValue();
+        }
+        return defaultValue;
+    }
+
+    @Override
+    public boolean getBoolean(String name) {
+        JsonValue value = get(name);
+        if (value == null) {
+            throw new NullPointerException();
+        } else if (value == JsonValue.TRUE) {
+            return true;
+        } else if (value == JsonValue.FALSE) {
+            return false;
+        } else {
+            throw new ClassCastException();
+        }
+    }
+
+    @Override
+    public boolean getBoolean(String name, boolean defaultValue) {
+        JsonValue value = get(name);
+        if (value == JsonValue.TRUE) {
+            return true;
+        } else if (value == JsonValue.FALSE) {
+            return false;
+        }
+        return defaultValue;
+    }
+
+    @Override
+    public ValueType getValueType() {
+        return ValueType.OBJECT;
+    }
+
+    @Override
+    public Set<Entry<String, JsonValue>> entrySet() {
+        return new AbstractSet<Entry<String, JsonValue>>() {
+            @Override
+            public Iterator<Entry<String, JsonValue>> iterator() {
+                final Members m = members();
+                return new Iterator<Entry<String, JsonValue>>() {
+                    int k;
+
+                    @Override
+                    public boolean hasNext() {
+                        return k < m.size;
+                    }
+
+                    @Override
+                    public Entry<String, JsonValue> next() {
+                        if (k >= m.size) {
+                            throw new NoSuchElementException();
+                        }
+                        Entry<String, JsonValue> entry = new SimpleImmutableEntry<String, JsonValue>(
+                                m.names[k], value(m, k));
+                        k++;
+                        return entry;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return members().size;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        StringWriter sw = new StringWriter();
+        JsonWriter jw = new JsonWriter(sw);
+        jw.write(this);
+        jw.close();
+        return sw.toString();
+    }
+}
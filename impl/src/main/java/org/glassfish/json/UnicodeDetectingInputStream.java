@@ -53,7 +53,7 @@ import java.nio.charset.Charset;
  * @author Jitendra Kotamraju
  */
 class UnicodeDetectingInputStream extends FilterInputStream {
-    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    static final Charset UTF_8 = Charset.forName("UTF-8");
     private static final Charset UTF_16BE = Charset.forName("UTF-16BE");
     private static final Charset UTF_16LE = Charset.forName("UTF-16LE");
     private static final Charset UTF_32LE = Charset.forName("UTF-32LE");
@@ -70,16 +70,23 @@ class UnicodeDetectingInputStream extends FilterInputStream {
     private int bufLen;
     private int curIndex;
     private final Charset charset;
+    private final int bomLength;
 
     UnicodeDetectingInputStream(InputStream is) {
         super(is);
         charset = detectEncoding();
+        bomLength = curIndex;
     }
 
     Charset getCharset() {
         return charset;
     }
 
+    // number of bytes of the byte order mark at the start of the stream
+    int getBomLength() {
+        return bomLength;
+    }
+
     private void fillBuf() {
         int b1;
         int b2;
@@ -164,7 +171,7 @@ class UnicodeDetectingInputStream extends FilterInputStream {
     @Override
     public int read() throws IOException {
         if (curIndex < bufLen) {
-            return buf[curIndex++];
+            return buf[curIndex++] & 0xFF;
         }
         return in.read();
     }
@@ -75,6 +75,35 @@ public class JsonBuilderTest extends TestCase {
         JsonObjectTest.testPerson(person);
     }
 
+    // build() hands over the storage, the later changes must not be seen
+    public void testChangeAfterBuild() throws Exception {
+        for (int size : new int[] {3, 4, 12, 16}) {
+            JsonObjectBuilder objectBuilder = new JsonObjectBuilder();
+            JsonArrayBuilder arrayBuilder = new JsonArrayBuilder();
+            for (int i = 0; i < size; i++) {
+                objectBuilder.add("m"+i, i);
+                arrayBuilder.add(i);
+            }
+            JsonObject object = objectBuilder.build();
+            JsonArray array = arrayBuilder.build();
+
+            objectBuilder.add("m0", "replaced").add("m"+size, size);
+            arrayBuilder.add(size);
+            JsonObject object2 = objectBuilder.build();
+            JsonArray array2 = arrayBuilder.build();
+
+            assertEquals(size, object.size());
+            assertEquals(0, object.getInt("m0"));
+            assertFalse(object.containsKey("m"+size));
+            assertEquals(size, array.size());
+            assertEquals(size + 1, object2.size());
+            assertEquals("replaced", object2.getString("m0"));
+            assertEquals(size, object2.getInt("m"+size));
+            assertEquals(size + 1, array2.size());
+            assertEquals(size, array2.getInt(size));
+        }
+    }
+
     public void testNumber() throws Exception {
         JsonObject person = buildPerson();
         JsonNumber number = person.getNumber("age");
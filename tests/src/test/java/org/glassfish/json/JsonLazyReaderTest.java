@@ -0,0 +1,302 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.json.JsonArray;
+import javax.json.JsonException;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonStructure;
+import javax.json.JsonValue;
+import javax.json.stream.JsonParsingException;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Jitendra Kotamraju
+ */
+public class JsonLazyReaderTest extends TestCase {
+    public JsonLazyReaderTest(String testName) {
+        super(testName);
+    }
+
+    public void testWiki() throws Exception {
+        byte[] bytes = wiki();
+        JsonStructure lazy = new JsonLazyReader(bytes).read();
+        JsonReader reader = new JsonReader(new InputStreamReader(wikiStream(), "UTF-8"));
+        JsonStructure eager = reader.read();
+        reader.close();
+
+        assertEquals(eager, lazy);
+        assertEquals(lazy, eager);
+        assertEquals(eager.hashCode(), lazy.hashCode());
+        assertEquals(eager.toString(), lazy.toString());
+    }
+
+    public void testWikiInputStream() throws Exception {
+        JsonLazyReader reader = new JsonLazyReader(wikiStream());
+        JsonObject person = reader.readObject();
+        reader.close();
+        assertEquals("John", person.getString("firstName"));
+        assertEquals(25, person.getInt("age"));
+        assertEquals("10021", person.getObject("address").getString("postalCode"));
+        assertEquals("646 555-4567", person.getArray("phoneNumber").getObject(1).getString("number"));
+    }
+
+    public void testWikiByteBuffer() throws Exception {
+        byte[] bytes = wiki();
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        JsonObject person = new JsonLazyReader(direct).readObject();
+        assertEquals("Smith", person.getString("lastName"));
+        assertEquals(0, direct.position());
+    }
+
+    public void testValues() {
+        JsonArray array = read("[\"a\\n\\u00e9\", \"\u00e9\u4e2d\", -1.5e3, 12345678901234567890, true, false, null, {}, [ ]]")
+                .readArray();
+        assertEquals(9, array.size());
+        assertEquals("a\n\u00e9", array.getString(0));
+        assertEquals("\u00e9\u4e2d", array.getString(1));
+        assertEquals(-1500, array.getInt(2));
+        assertEquals("12345678901234567890", array.getNumber(3).bigIntegerValue().toString());
+        assertTrue(array.getBoolean(4));
+        assertFalse(array.getBoolean(5));
+        assertEquals(JsonValue.NULL, array.get(6));
+        assertTrue(array.getObject(7).isEmpty());
+        assertTrue(array.getArray(8).isEmpty());
+        assertSame(array.get(2), array.get(2));
+    }
+
+    public void testMembers() {
+        JsonObject object = read("{\"a\":1, \"b\":{\"c\":[1,2]}, \"a\":2, \"d\":\"x\"}").readObject();
+        assertEquals(3, object.size());
+        assertEquals(2, object.getInt("a"));
+        assertEquals(2, object.getObject("b").getArray("c").getInt(1));
+        assertTrue(object.containsKey("d"));
+        assertFalse(object.containsKey("e"));
+        assertNull(object.get("e"));
+        assertEquals("[a, b, d]", object.keySet().toString());
+
+        JsonReader reader = new JsonReader(new StringReader("{\"a\":2,\"b\":{\"c\":[1,2]},\"d\":\"x\"}"));
+        assertEquals(reader.readObject(), object);
+        reader.close();
+    }
+
+    public void testManyMembers() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < 1000; i++) {
+            sb.append(i == 0 ? "" : ",").append("\"k").append(i).append("\":").append(i);
+        }
+        JsonObject object = read(sb.append("}").toString()).readObject();
+        assertEquals(1000, object.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, object.getInt("k"+i));
+        }
+    }
+
+    public void testErrorsOnAccess() {
+        JsonObject object = read("{\"a\":[1,2,], \"b\":1, \"c\":tru, \"d\":{\"e\" 1}}").readObject();
+        assertEquals(1, object.getInt("b"));
+        JsonArray a = object.getArray("a");
+        try {
+            a.size();
+            fail("Expected JsonParsingException for [1,2,]");
+        } catch (JsonParsingException expected) {
+            // no-op
+        }
+        try {
+            object.get("c");
+            fail("Expected JsonParsingException for tru");
+        } catch (JsonParsingException expected) {
+            // no-op
+        }
+        try {
+            object.getObject("d").get("e");
+            fail("Expected JsonParsingException for a missing colon");
+        } catch (JsonParsingException expected) {
+            // no-op
+        }
+    }
+
+    public void testControlCharsInStrings() {
+        // raw DEL is rejected as by JsonReader, in values and in names
+        JsonObject object = read("{\"k\":\"a\u007Fb\"}").readObject();
+        try {
+            object.getString("k");
+            fail("Expected JsonException for DEL in a string");
+        } catch (JsonException expected) {
+            // no-op
+        }
+        try {
+            read("{\"k\u007F\":1}").readObject().size();
+            fail("Expected JsonException for DEL in a name");
+        } catch (JsonException expected) {
+            // no-op
+        }
+        try {
+            read("[\"a\u0001b\"]").readArray().getString(0);
+            fail("Expected JsonException for a control char in a string");
+        } catch (JsonException expected) {
+            // no-op
+        }
+    }
+
+    public void testUnmatchedBrackets() {
+        for (String json : new String[] { "{\"a\":[}", "[{]}", "[1,2", "[\"]\"" }) {
+            try {
+                read(json).read();
+                fail("Expected JsonParsingException for "+json);
+            } catch (JsonParsingException expected) {
+                // no-op
+            }
+        }
+    }
+
+    public void testWrongStructure() {
+        try {
+            read("[1]").readObject();
+            fail("Expected JsonException");
+        } catch (JsonException expected) {
+            assertFalse(expected instanceof JsonParsingException);
+        }
+        try {
+            read("  ").read();
+            fail("Expected JsonException");
+        } catch (JsonException expected) {
+            assertFalse(expected instanceof JsonParsingException);
+        }
+        try {
+            read("  1").read();
+            fail("Expected JsonParsingException");
+        } catch (JsonParsingException expected) {
+            // no-op
+        }
+    }
+
+    public void testUTF16() throws Exception {
+        byte[] bytes = "{\"a\":[\"\u00e9\"]}".getBytes("UTF-16LE");
+        JsonObject object = new JsonLazyReader(bytes).readObject();
+        assertEquals("\u00e9", object.getArray("a").getString(0));
+    }
+
+    public void testSizeLimit() throws Exception {
+        Map<String, Object> config = new HashMap<String, Object>();
+        config.put(JsonParserFactoryImpl.MAX_DOCUMENT_SIZE, 10);
+        JsonLazyReader reader = new JsonLazyReader(
+                new ByteArrayInputStream("[1,2,3,4]".getBytes("UTF-8")), config);
+        assertEquals(4, reader.readArray().size());
+        reader = new JsonLazyReader(
+                new ByteArrayInputStream("[1,2,3,4,5]".getBytes("UTF-8")), config);
+        try {
+            reader.readArray();
+            fail("Expected JsonParsingException for input that is larger than the limit");
+        } catch (JsonParsingException expected) {
+            assertEquals("Input is larger than the limit of 10 bytes", expected.getMessage());
+        }
+    }
+
+    public void testSharedViews() throws Exception {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            sb.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append("}");
+        }
+        final JsonArray array = read(sb.append("]").toString()).readArray();
+        final Throwable[] errors = new Throwable[4];
+        Thread[] threads = new Thread[errors.length];
+        for (int t = 0; t < threads.length; t++) {
+            final int n = t;
+            threads[t] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < array.size(); i++) {
+                            JsonNumber id = array.getObject(i).getNumber("id");
+                            assertEquals(i, id.intValue());
+                        }
+                    } catch (Throwable e) {
+                        errors[n] = e;
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (int t = 0; t < threads.length; t++) {
+            threads[t].join();
+            assertNull(errors[t]);
+        }
+    }
+
+    private static JsonLazyReader read(String json) {
+        try {
+            return new JsonLazyReader(json.getBytes("UTF-8"));
+        } catch (IOException ioe) {
+            throw new JsonException("Unexpected", ioe);
+        }
+    }
+
+    private InputStream wikiStream() {
+        return JsonLazyReaderTest.class.getResourceAsStream("/wiki.json");
+    }
+
+    private byte[] wiki() throws IOException {
+        InputStream in = wikiStream();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[8192];
+        int len;
+        while ((len = in.read(buf)) != -1) {
+            out.write(buf, 0, len);
+        }
+        in.close();
+        return out.toByteArray();
+    }
+}
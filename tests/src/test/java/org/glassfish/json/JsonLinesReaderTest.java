@@ -0,0 +1,253 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.lang.ref.WeakReference;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.stream.JsonParsingException;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Jitendra Kotamraju
+ */
+public class JsonLinesReaderTest extends TestCase {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private ExecutorService executor;
+
+    public JsonLinesReaderTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @Override
+    protected void tearDown() {
+        executor.shutdownNow();
+    }
+
+    public void testOrdered() {
+        String[] lines = lines(2000);
+        for (int batchSize : new int[] { 16, 1000, JsonLinesReader.BATCH_SIZE }) {
+            List<JsonLinesReader.Record> records = readAll(join(lines), true, batchSize);
+            assertEquals(lines.length, records.size());
+            for (int i = 0; i < lines.length; i++) {
+                JsonLinesReader.Record record = records.get(i);
+                assertEquals(i + 1, record.getLineNumber());
+                assertNull(record.getError());
+                assertEquals(read(lines[i]), record.getValue());
+            }
+        }
+    }
+
+    public void testUnordered() {
+        String[] lines = lines(2000);
+        List<JsonLinesReader.Record> records = readAll(join(lines), false, 1000);
+        assertEquals(lines.length, records.size());
+        boolean[] seen = new boolean[lines.length];
+        for (JsonLinesReader.Record record : records) {
+            int i = (int) record.getLineNumber() - 1;
+            assertFalse(seen[i]);
+            seen[i] = true;
+            assertEquals(read(lines[i]), record.getValue());
+        }
+    }
+
+    public void testParsedBatchesAreReleased() {
+        // only the batches in progress are kept, not the ones that are taken
+        for (boolean ordered : new boolean[] { true, false }) {
+            InputStream in = new ByteArrayInputStream(join(lines(20000)).getBytes(UTF_8));
+            JsonLinesReader reader = new JsonLinesReader(in, executor, 3, ordered,
+                    Collections.<String, Object>emptyMap(), 4096);
+            WeakReference<JsonLinesReader.Record> first =
+                    new WeakReference<JsonLinesReader.Record>(reader.next());
+            int count = 1;
+            while (reader.hasNext()) {
+                reader.next();
+                count++;
+            }
+            assertEquals(20000, count);
+            for (int i = 0; i < 10 && first.get() != null; i++) {
+                System.gc();
+            }
+            assertNull(first.get());
+            reader.close();
+        }
+    }
+
+    public void testMalformedLines() {
+        // errors are reported for the lines, and the reading goes on
+        String json = "{\"a\":1}\n{\"a\":\n[1,2]\r\n\n   \n[1] 2\n\"str\"\n{\"b\":[\"\u00e9\"]}";
+        List<JsonLinesReader.Record> records = readAll(json, true, 4);
+        assertEquals(6, records.size());
+        assertEquals(1, records.get(0).getLineNumber());
+        assertEquals(1, ((JsonObject) records.get(0).getValue()).getInt("a"));
+
+        assertEquals(2, records.get(1).getLineNumber());
+        assertNull(records.get(1).getValue());
+        assertNotNull(records.get(1).getError());
+        assertEquals("{\"a\":", records.get(1).getLine());
+
+        assertEquals(3, records.get(2).getLineNumber());
+        assertEquals(2, ((JsonArray) records.get(2).getValue()).getInt(1));
+
+        assertEquals(6, records.get(3).getLineNumber());
+        assertTrue(records.get(3).getError() instanceof JsonParsingException);
+        assertEquals("[1] 2", records.get(3).getLine());
+
+        assertEquals(7, records.get(4).getLineNumber());
+        assertNotNull(records.get(4).getError());
+
+        assertEquals(8, records.get(5).getLineNumber());
+        assertEquals("\u00e9", ((JsonObject) records.get(5).getValue()).getArray("b").getString(0));
+    }
+
+    public void testEmpty() {
+        assertEquals(0, readAll("", true, 16).size());
+        assertEquals(0, readAll("\n \n", false, 16).size());
+    }
+
+    public void testBOM() {
+        byte[] json = "[1]\n".getBytes(UTF_8);
+        byte[] bytes = new byte[json.length + 3];
+        bytes[0] = (byte)0xEF;
+        bytes[1] = (byte)0xBB;
+        bytes[2] = (byte)0xBF;
+        System.arraycopy(json, 0, bytes, 3, json.length);
+        JsonLinesReader reader = new JsonLinesReader(new ByteArrayInputStream(bytes), executor);
+        assertTrue(reader.hasNext());
+        assertNull(reader.next().getError());
+        assertFalse(reader.hasNext());
+        reader.close();
+    }
+
+    public void testLimits() {
+        Map<String, Object> config = new HashMap<String, Object>();
+        config.put(JsonParserFactoryImpl.MAX_DEPTH, 2);
+        config.put(JsonParserFactoryImpl.MAX_MEMBERS, 3);
+        config.put(JsonParserFactoryImpl.MAX_TOKEN_LENGTH, 5);
+        String json = "[[1]]\n[[[1]]]\n[1,2,3]\n[1,2,3,4]\n[\"abcde\"]\n[\"abcdef\"]\n[1]\n";
+        List<JsonLinesReader.Record> records = readAll(json, true, config, 16);
+        assertEquals(7, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            // every other line is over a limit
+            JsonLinesReader.Record record = records.get(i);
+            if (i % 2 == 1) {
+                assertTrue(record.getLine(), record.getError() instanceof JsonParsingException);
+            } else {
+                assertNull(record.getLine(), record.getError());
+            }
+        }
+
+        // a line without a newline doesn't grow beyond the size limit
+        config = new HashMap<String, Object>();
+        config.put(JsonParserFactoryImpl.MAX_DOCUMENT_SIZE, 100);
+        StringBuilder sb = new StringBuilder("[1]\n[");
+        for (int i = 0; i < 1000; i++) {
+            sb.append("1,");
+        }
+        try {
+            readAll(sb.toString(), true, config, 16);
+            fail("Expected JsonParsingException for input that is larger than the limit");
+        } catch (JsonParsingException expected) {
+            assertEquals("Input is larger than the limit of 100 bytes", expected.getMessage());
+        }
+    }
+
+    private List<JsonLinesReader.Record> readAll(String json, boolean ordered, int batchSize) {
+        return readAll(json, ordered, Collections.<String, Object>emptyMap(), batchSize);
+    }
+
+    private List<JsonLinesReader.Record> readAll(String json, boolean ordered,
+            Map<String, ?> config, int batchSize) {
+        InputStream in = new ByteArrayInputStream(json.getBytes(UTF_8));
+        JsonLinesReader reader = new JsonLinesReader(in, executor, 3, ordered, config, batchSize);
+        List<JsonLinesReader.Record> records = new ArrayList<JsonLinesReader.Record>();
+        while (reader.hasNext()) {
+            records.add(reader.next());
+        }
+        reader.close();
+        return records;
+    }
+
+    static String[] lines(int count) {
+        String[] lines = new String[count];
+        for (int i = 0; i < count; i++) {
+            lines[i] = i % 5 == 0
+                    ? "[" + i + ",\"\u00e9\u20ac\ud834\udd1e\",true]"
+                    : "{\"id\":" + i + ",\"name\":\"user" + i + "\",\"tags\":[\"a\",null]}";
+        }
+        return lines;
+    }
+
+    static String join(String[] lines) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : lines) {
+            sb.append(line).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static Object read(String json) {
+        JsonReader reader = new JsonReader(new StringReader(json));
+        Object value = reader.read();
+        reader.close();
+        return value;
+    }
+}
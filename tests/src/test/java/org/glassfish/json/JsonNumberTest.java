@@ -51,6 +51,7 @@ import javax.json.JsonNumber;
 import javax.json.JsonReader;
 import javax.json.JsonValue;
 import javax.json.JsonWriter;
+import javax.json.stream.JsonParsingException;
 
 import junit.framework.TestCase;
 
@@ -236,5 +237,86 @@ public class JsonNumberTest extends TestCase {
         }
     }
 
+    // The number variants must behave the same as their BigDecimal values
+    public void testVariants() {
+        String[] numbers = {
+                "0", "-0", "12", "-2147483649", "9223372036854775807",
+                "-9223372036854775808", "9223372036854775808", "1.5", "1.50",
+                "1e2", "1.5e1", "1E-8", "-0.0", "123456789012345678901234567890"
+        };
+        StringBuilder sb = new StringBuilder("[");
+        for (String number : numbers) {
+            sb.append(sb.length() == 1 ? "" : ",").append(number);
+        }
+        JsonReader reader = new JsonReader(new StringReader(sb.append("]").toString()));
+        JsonArray array = reader.readArray();
+        reader.close();
+        for (int i = 0; i < numbers.length; i++) {
+            BigDecimal bigDecimal = new BigDecimal(numbers[i]);
+            assertNumber(new JsonArrayBuilder().add(bigDecimal).build().getNumber(0),
+                    array.getNumber(i));
+        }
+
+        JsonArray built = new JsonArrayBuilder()
+                .add(7).add(7L).add(Long.MAX_VALUE).add(2.5).add(-0.0).add(1e20)
+                .build();
+        JsonArray expected = new JsonArrayBuilder()
+                .add(new BigDecimal(7)).add(new BigDecimal(7L))
+                .add(new BigDecimal(Long.MAX_VALUE)).add(BigDecimal.valueOf(2.5))
+                .add(BigDecimal.valueOf(-0.0)).add(BigDecimal.valueOf(1e20))
+                .build();
+        for (int i = 0; i < built.size(); i++) {
+            assertNumber(expected.getNumber(i), built.getNumber(i));
+        }
+    }
+
+    public void testHugeExponents() {
+        // the scale doesn't fit in an int, reported while reading
+        for (String json : new String[] { "[1e-2147483648]", "[0.1e-2147483647]", "[1E-99999999999]" }) {
+            JsonReader reader = new JsonReader(new StringReader(json));
+            try {
+                reader.readArray();
+                fail("Expected JsonParsingException for "+json);
+            } catch (JsonParsingException expected) {
+                // no-op
+            }
+        }
+
+        // the scale fits
+        JsonReader reader = new JsonReader(new StringReader("[1e-100000,-25E+2147483647]"));
+        JsonArray array = reader.readArray();
+        reader.close();
+        assertEquals(new BigDecimal("1e-100000"), array.getNumber(0).bigDecimalValue());
+        assertEquals(JsonNumber.NumberType.DECIMAL, array.getNumber(1).getNumberType());
+        assertEquals(new BigDecimal("-25E+2147483647").hashCode(), array.getNumber(1).hashCode());
+        assertEquals("[1E-100000,-2.5E+2147483648]", array.toString());
+    }
+
+    public void testProviderNumbers() {
+        // the provider's numbers mix with the numbers of the builders
+        String[] numbers = { "0", "-0", "12", "1.50", "-1e2", "1.5E+1", "123456789012345678901234567890" };
+        for (String number : numbers) {
+            JsonNumber expected = new JsonArrayBuilder().add(new BigDecimal(number)).build().getNumber(0);
+            assertNumber(expected, JsonNumberImpl.getJsonNumber(number));
+        }
+        long[] longs = { 7, -128, 1023, 1024, Integer.MIN_VALUE, Long.MAX_VALUE };
+        for (long value : longs) {
+            JsonNumber expected = new JsonArrayBuilder().add(value).build().getNumber(0);
+            assertNumber(expected, JsonNumberImpl.getJsonNumber(value));
+        }
+    }
+
+    private void assertNumber(JsonNumber expected, JsonNumber actual) {
+        assertEquals(expected, actual);
+        assertEquals(actual, expected);
+        assertEquals(expected.hashCode(), actual.hashCode());
+        assertEquals(expected.getNumberType(), actual.getNumberType());
+        assertEquals(expected.toString(), actual.toString());
+        assertEquals(expected.intValue(), actual.intValue());
+        assertEquals(expected.longValue(), actual.longValue());
+        assertEquals(expected.doubleValue(), actual.doubleValue());
+        assertEquals(expected.bigIntegerValue(), actual.bigIntegerValue());
+        assertEquals(expected.bigDecimalValue(), actual.bigDecimalValue());
+    }
 
-}
\ No newline at end of file
+}
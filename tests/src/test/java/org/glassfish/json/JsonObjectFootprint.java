@@ -0,0 +1,133 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonValue;
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reports the retained heap per member of the objects that are built by
+ * JsonObjectBuilder, and of the previous layout of a LinkedHashMap copy
+ * that is wrapped in an unmodifiable map and in the object. The names and
+ * values are shared by all the objects, so only the memory of the object
+ * structure is counted. It is not run as part of the tests, and can be
+ * run as:
+ *
+ * <pre>
+ * java -cp ... org.glassfish.json.JsonObjectFootprint
+ * </pre>
+ *
+ * @author Jitendra Kotamraju
+ */
+public class JsonObjectFootprint {
+    // keeps the measured objects reachable
+    static Object[] objects;
+
+    public static void main(String... args) {
+        int[] sizes = { 1, 4, 8, 9, 16, 64, 256 };
+        for (int size : sizes) {
+            String[] names = new String[size];
+            for (int i = 0; i < size; i++) {
+                names[i] = "member" + i;
+            }
+            int count = 1000*1000/size;
+
+            // the objects of a builder share its storage, so every object
+            // is built by its own builder
+            objects = new Object[count];
+            long before = usedMemory();
+            for (int i = 0; i < count; i++) {
+                objects[i] = build(names);
+            }
+            long built = usedMemory() - before;
+
+            JsonObject object = build(names);
+            objects = new Object[count];
+            before = usedMemory();
+            for (int i = 0; i < count; i++) {
+                objects[i] = new PreviousLayout(object);
+            }
+            long previous = usedMemory() - before;
+
+            double members = (double) size * count;
+            System.out.printf("%4d members: built %5.1f bytes/member, previous %5.1f bytes/member%n",
+                    size, built / members, previous / members);
+            objects = null;
+        }
+    }
+
+    private static JsonObject build(String[] names) {
+        JsonObjectBuilder builder = new JsonObjectBuilder();
+        for (String name : names) {
+            builder.add(name, JsonValue.NULL);
+        }
+        return builder.build();
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // The layout of JsonObjectImpl before the flat arrays
+    private static final class PreviousLayout extends AbstractMap<String, JsonValue> {
+        private final Map<String, JsonValue> valueMap;
+
+        PreviousLayout(Map<String, JsonValue> map) {
+            valueMap = Collections.unmodifiableMap(new LinkedHashMap<String, JsonValue>(map));
+        }
+
+        @Override
+        public Set<Entry<String, JsonValue>> entrySet() {
+            return valueMap.entrySet();
+        }
+    }
+
+}
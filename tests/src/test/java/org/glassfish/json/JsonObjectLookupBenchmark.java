@@ -0,0 +1,110 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import java.nio.charset.Charset;
+
+/**
+ * Measures the cost of JsonObject#get() for objects of different sizes,
+ * for the objects that are built by JsonObjectBuilder and for the lazy
+ * objects of JsonLazyReader. Every member of an object is looked up once
+ * per round, in a different order than they were added. It is not run as
+ * part of the tests, and can be run as:
+ *
+ * <pre>
+ * java -cp ... org.glassfish.json.JsonObjectLookupBenchmark
+ * </pre>
+ *
+ * @author Jitendra Kotamraju
+ */
+public class JsonObjectLookupBenchmark {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    public static void main(String... args) throws Exception {
+        int[] sizes = { 4, 16, 64, 256, 1024 };
+        for (int size : sizes) {
+            String[] names = new String[size];
+            JsonObjectBuilder builder = new JsonObjectBuilder();
+            for (int i = 0; i < size; i++) {
+                names[i] = "member" + i;
+                builder.add(names[i], i);
+            }
+            JsonObject built = builder.build();
+            JsonObject lazy = new JsonLazyReader(built.toString().getBytes(UTF_8)).readObject();
+
+            // looked up in reverse order, with equal but not identical names
+            String[] lookups = new String[size];
+            for (int i = 0; i < size; i++) {
+                lookups[i] = new String(names[size - 1 - i]);
+            }
+
+            int iterations = 20*1000*1000/size;
+            long builtTime = Long.MAX_VALUE;
+            long lazyTime = Long.MAX_VALUE;
+            for (int round = 0; round < 8; round++) {
+                builtTime = Math.min(builtTime, run(built, lookups, iterations));
+                lazyTime = Math.min(lazyTime, run(lazy, lookups, iterations));
+            }
+            double total = (double) size * iterations;
+            System.out.printf("%5d members: built %6.1f ns/get, lazy %6.1f ns/get%n",
+                    size, builtTime / total, lazyTime / total);
+        }
+    }
+
+    static long run(JsonObject object, String[] lookups, int iterations) {
+        long start = System.nanoTime();
+        int found = 0;
+        for (int i = 0; i < iterations; i++) {
+            for (String name : lookups) {
+                if (object.get(name) != null) {
+                    found++;
+                }
+            }
+        }
+        if (found != lookups.length * iterations) {
+            throw new AssertionError();
+        }
+        return System.nanoTime() - start;
+    }
+
+}
@@ -137,4 +137,25 @@ public class JsonObjectTest extends TestCase {
         }
     }
 
+    public void testLookup() {
+        JsonObjectBuilder builder = new JsonObjectBuilder();
+        for (int i = 0; i < 300; i++) {
+            builder.add("k" + i, i);
+        }
+        JsonObject obj = builder.add("k7", "replaced").addNull("n").build();
+        assertEquals(301, obj.size());
+        for (int i = 0; i < 300; i++) {
+            if (i != 7) {
+                assertEquals(i, obj.getInt("k" + i));
+            }
+        }
+        assertEquals("replaced", obj.getString("k7"));
+        assertTrue(obj.containsKey("n"));
+        assertEquals(JsonValue.NULL, obj.get("n"));
+        assertFalse(obj.containsKey("k300"));
+        assertNull(obj.get("k300"));
+        assertNull(obj.get(null));
+        assertNull(obj.get(7));
+    }
+
 }
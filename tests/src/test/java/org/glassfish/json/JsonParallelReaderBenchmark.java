@@ -0,0 +1,101 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+import javax.json.JsonReader;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Measures how JsonParallelReader scales with the number of threads, by
+ * reading a large array of records with 1 to N threads(N is the number of
+ * processors by default). The time of the sequential JsonReader is the
+ * baseline. It is not run as part of the tests, and can be run as:
+ *
+ * <pre>
+ * java -cp ... org.glassfish.json.JsonParallelReaderBenchmark [size in MB] [N]
+ * </pre>
+ *
+ * @author Jitendra Kotamraju
+ */
+public class JsonParallelReaderBenchmark {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    public static void main(String... args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        byte[] json = JsonTokenizerBenchmark.payload(size*1024*1024).getBytes(UTF_8);
+
+        long sequential = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            JsonReader reader = new JsonReader(new ByteArrayInputStream(json));
+            reader.readArray();
+            reader.close();
+            sequential = Math.min(sequential, System.nanoTime() - start);
+        }
+        System.out.printf("sequential: %6.1f ms %6.1f MB/s%n", sequential / 1e6,
+                json.length * 1e3 / sequential);
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            long best = Long.MAX_VALUE;
+            for (int round = 0; round < 5; round++) {
+                long start = System.nanoTime();
+                JsonParallelReader reader = new JsonParallelReader(
+                        new ByteArrayInputStream(json), executor);
+                reader.readArray();
+                reader.close();
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            executor.shutdown();
+            System.out.printf("%2d threads: %6.1f ms %6.1f MB/s speedup %4.2f%n", threads,
+                    best / 1e6, json.length * 1e3 / best, (double) sequential / best);
+            if (threads < maxThreads && 2*threads > maxThreads) {
+                threads = maxThreads / 2;
+            }
+        }
+    }
+
+}
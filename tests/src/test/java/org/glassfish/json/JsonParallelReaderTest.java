@@ -0,0 +1,196 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.json.JsonArray;
+import javax.json.JsonReader;
+import javax.json.stream.JsonParsingException;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Jitendra Kotamraju
+ */
+public class JsonParallelReaderTest extends TestCase {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private ExecutorService executor;
+
+    public JsonParallelReaderTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @Override
+    protected void tearDown() {
+        executor.shutdownNow();
+    }
+
+    public void testRecords() {
+        String json = JsonTokenizerBenchmark.payload(50*1024);
+        for (int taskSize : new int[] { 1, 100, 4096, JsonParallelReader.TASK_SIZE }) {
+            assertEquals(readSequential(json), readParallel(json.getBytes(UTF_8), taskSize));
+        }
+    }
+
+    public void testValues() {
+        String json = " [ \"a,]\" , 1.5e3, [1, [2]], {\"b\": [\"}\"]}, true, false, null, \"\\\"],\" ] ";
+        assertEquals(readSequential(json), readParallel(json.getBytes(UTF_8), 1));
+    }
+
+    public void testEmptyArray() {
+        assertEquals(0, readParallel("[]".getBytes(UTF_8), 1).size());
+        assertEquals(0, readParallel(" [ ] ".getBytes(UTF_8), 1).size());
+    }
+
+    public void testUTF16() {
+        String json = JsonTokenizerBenchmark.payload(10*1024);
+        assertEquals(readSequential(json),
+                readParallel(json.getBytes(Charset.forName("UTF-16LE")), 100));
+    }
+
+    public void testErrors() {
+        // the same exceptions as that of the sequential reader
+        String[] inputs = {
+            "[1,]", "[1,,2]", "[,1]", "[1,2", "[1 2]", "[1:2]", "[1,2}", "[{\"a\":1],2]",
+            "[[1],[2,]]", "[1,tru]", "{\"a\":1}", "\"a\"", " "
+        };
+        for (String json : inputs) {
+            Exception expected = null;
+            try {
+                readSequential(json);
+            } catch (Exception e) {
+                expected = e;
+            }
+            assertNotNull(json, expected);
+            try {
+                readParallel(json.getBytes(UTF_8), 1);
+                fail("Expected "+expected+" for "+json);
+            } catch (Exception e) {
+                assertEquals(json, expected.getClass(), e.getClass());
+                assertEquals(json, expected.getMessage(), e.getMessage());
+            }
+        }
+    }
+
+    public void testLimits() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 400; i++) {
+            sb.append(i == 0 ? "" : ",").append(i);
+        }
+        String json = sb.append("]").toString();
+        String nested = "[[1,2],{\"a\":[3]},[],{}]";
+        assertLimit(json, JsonParserFactoryImpl.MAX_DOCUMENT_SIZE, 500,
+                "Input is larger than the limit of 500 bytes");
+        assertLimit(json, JsonParserFactoryImpl.MAX_MEMBERS, 399,
+                "Number of members is more than the limit of 399");
+        assertLimit(nested, JsonParserFactoryImpl.MAX_MEMBERS, 7,
+                "Number of members is more than the limit of 7");
+
+        Map<String, Object> config = new HashMap<String, Object>();
+        config.put(JsonParserFactoryImpl.MAX_MEMBERS, 400);
+        config.put(JsonParserFactoryImpl.MAX_DOCUMENT_SIZE, json.length());
+        assertEquals(400, readParallel(json.getBytes(UTF_8), config, 100).size());
+        config.put(JsonParserFactoryImpl.MAX_MEMBERS, 8);
+        assertEquals(4, readParallel(nested.getBytes(UTF_8), config, 1).size());
+    }
+
+    public void testReadTwice() {
+        JsonParallelReader reader = new JsonParallelReader(
+                new ByteArrayInputStream("[1]".getBytes(UTF_8)), executor);
+        reader.readArray();
+        try {
+            reader.readArray();
+            fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            // no-op
+        }
+        reader.close();
+    }
+
+    private JsonArray readParallel(byte[] json, int taskSize) {
+        return readParallel(json, Collections.<String, Object>emptyMap(), taskSize);
+    }
+
+    private JsonArray readParallel(byte[] json, Map<String, ?> config, int taskSize) {
+        JsonParallelReader reader = new JsonParallelReader(new ByteArrayInputStream(json),
+                executor, config, taskSize);
+        JsonArray array = reader.readArray();
+        reader.close();
+        return array;
+    }
+
+    private void assertLimit(String json, String name, Object value, String message) {
+        Map<String, Object> config = new HashMap<String, Object>();
+        config.put(name, value);
+        try {
+            new JsonReader(new ByteArrayInputStream(json.getBytes(UTF_8)), config).readArray();
+            fail("Expected JsonParsingException from JsonReader for "+name);
+        } catch (JsonParsingException expected) {
+            assertEquals(message, expected.getMessage());
+        }
+        try {
+            readParallel(json.getBytes(UTF_8), config, 100);
+            fail("Expected JsonParsingException from JsonParallelReader for "+name);
+        } catch (JsonParsingException expected) {
+            assertEquals(message, expected.getMessage());
+        }
+    }
+
+    private static JsonArray readSequential(String json) {
+        JsonReader reader = new JsonReader(new ByteArrayInputStream(json.getBytes(UTF_8)));
+        JsonArray array = reader.readArray();
+        reader.close();
+        return array;
+    }
+}
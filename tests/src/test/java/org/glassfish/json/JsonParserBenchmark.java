@@ -0,0 +1,138 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+import javax.json.stream.JsonParser;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Measures the cost per event of JsonParserImpl on UTF-8 bytes, and the
+ * part of it that is spent outside the tokenizer(i.e. in the parser's
+ * state machine) by subtracting the time to only tokenize the same input.
+ * The dense payload has small values, so that the state machine cost is
+ * a large part of the total. It is not run as part of the tests, and can
+ * be run as:
+ *
+ * <pre>
+ * java -cp ... org.glassfish.json.JsonParserBenchmark
+ * </pre>
+ *
+ * @author Jitendra Kotamraju
+ */
+public class JsonParserBenchmark {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    public static void main(String... args) throws Exception {
+        String[] names = { "records", "dense" };
+        String[] payloads = { JsonTokenizerBenchmark.payload(500*1024), densePayload(500*1024) };
+        for (int p = 0; p < payloads.length; p++) {
+            byte[] json = payloads[p].getBytes(UTF_8);
+            int iterations = 100*1024*1024/json.length;
+            int events = parse(json);
+
+            // best of a few rounds, the first ones warm up
+            long parser = Long.MAX_VALUE;
+            long tokenizer = Long.MAX_VALUE;
+            for (int round = 0; round < 8; round++) {
+                parser = Math.min(parser, runParser(json, iterations));
+                tokenizer = Math.min(tokenizer, runTokenizer(json, iterations));
+            }
+            double total = (double) events * iterations;
+            System.out.printf("%-7s: %d events, parser %5.1f ns/event, tokenizer %5.1f ns/event, "
+                    + "state machine %5.1f ns/event%n",
+                    names[p], events, parser / total, tokenizer / total,
+                    (parser - tokenizer) / total);
+        }
+    }
+
+    static long runParser(byte[] json, int iterations) {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            parse(json);
+        }
+        return System.nanoTime() - start;
+    }
+
+    static long runTokenizer(byte[] json, int iterations) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            tokenize(json);
+        }
+        return System.nanoTime() - start;
+    }
+
+    // Only reads the tokens, like the parser does when values are not asked
+    static int tokenize(byte[] json) throws Exception {
+        JsonTokenizer tokenizer = new JsonTokenizer(new ByteArrayInputStream(json));
+        int tokens = 0;
+        while (tokenizer.nextToken() != JsonTokenizer.JsonToken.EOF) {
+            tokens++;
+        }
+        tokenizer.close();
+        return tokens;
+    }
+
+    // Returns the number of events
+    static int parse(byte[] json) {
+        JsonParser parser = new JsonParserImpl(new JsonTokenizer(new ByteArrayInputStream(json)));
+        int events = 0;
+        while (parser.hasNext()) {
+            parser.next();
+            events++;
+        }
+        parser.close();
+        return events;
+    }
+
+    // Nested objects and arrays of small numbers and literals
+    static String densePayload(int size) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; sb.length() < size; i++) {
+            if (i != 0) {
+                sb.append(',');
+            }
+            sb.append("{\"a\":[").append(i % 10).append(",true,[0,1,{}]],\"b\":{\"c\":null,\"d\":[[]]}}");
+        }
+        return sb.append("]").toString();
+    }
+
+}
@@ -77,4 +77,39 @@ public class JsonParserFactoryTest extends TestCase {
         parser2.close();
     }
 
+    public void testStructuralIndexConfig() {
+        Map<String, Object> config = new HashMap<String, Object>();
+        config.put(JsonParserFactoryImpl.STRUCTURAL_INDEX, true);
+        config.put("foo", true);
+        JsonParserFactory parserFactory = Json.createParserFactory(config);
+        Map<String, ?> configInUse = parserFactory.getConfigInUse();
+        assertEquals(1, configInUse.size());
+        assertTrue(configInUse.containsKey(JsonParserFactoryImpl.STRUCTURAL_INDEX));
+    }
+
+    public void testTableSizeConfig() {
+        for (String name : new String[] {
+                JsonParserFactoryImpl.KEY_TABLE_SIZE, JsonParserFactoryImpl.VALUE_TABLE_SIZE }) {
+            Map<String, Object> config = new HashMap<String, Object>();
+            config.put(name, JsonParserFactoryImpl.MAX_TABLE_SIZE);
+            JsonParserFactory parserFactory = Json.createParserFactory(config);
+            assertEquals(JsonParserFactoryImpl.MAX_TABLE_SIZE, parserFactory.getConfigInUse().get(name));
+            JsonParser parser = parserFactory.createParser(new StringReader("{\"a\":\"b\"}"));
+            while (parser.hasNext()) {
+                parser.next();
+            }
+            parser.close();
+
+            for (int size : new int[] { -1, JsonParserFactoryImpl.MAX_TABLE_SIZE + 1, Integer.MAX_VALUE }) {
+                config.put(name, size);
+                try {
+                    Json.createParserFactory(config);
+                    fail("Expected IllegalArgumentException for "+name+"="+size);
+                } catch (IllegalArgumentException expected) {
+                    // no-op
+                }
+            }
+        }
+    }
+
 }
\ No newline at end of file
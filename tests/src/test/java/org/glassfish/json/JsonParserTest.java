@@ -43,9 +43,15 @@ package org.glassfish.json;
 import junit.framework.TestCase;
 
 import javax.json.*;
+import javax.json.stream.JsonFeedParser;
 import javax.json.stream.JsonParser;
 import javax.json.stream.JsonParser.Event;
+import javax.json.stream.JsonParserFactory;
+import javax.json.stream.JsonParsingException;
 import java.io.*;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.Map;
@@ -562,6 +568,1048 @@ public class JsonParserTest extends TestCase {
         }
     }
 
+    public void testLongStringReader() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        String str = sb.toString();
+        JsonParser parser = Json.createParser(new StringReader("[\"" + str + "\"]"));
+        assertEquals(Event.START_ARRAY, parser.next());
+        assertEquals(Event.VALUE_STRING, parser.next());
+        assertEquals(str, parser.getString());
+        assertEquals(Event.END_ARRAY, parser.next());
+        parser.close();
+    }
+
+    public void testValuesAcrossBufferReader() {
+        // values with escapes at varying offsets of the tokenizer's buffer
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 5000; i++) {
+            if (i != 0) {
+                sb.append(',');
+            }
+            sb.append("\"a\\\"b\\u0041").append(i).append("\",").append(-i).append(".5");
+        }
+        sb.append("]");
+        JsonParser parser = Json.createParser(new StringReader(sb.toString()));
+        assertEquals(Event.START_ARRAY, parser.next());
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(Event.VALUE_STRING, parser.next());
+            assertEquals("a\"bA" + i, parser.getString());
+            assertEquals(Event.VALUE_NUMBER, parser.next());
+            assertEquals(-i + ".5", parser.getString());
+        }
+        assertEquals(Event.END_ARRAY, parser.next());
+        parser.close();
+    }
+
+    public void testNonAsciiStreamUTF8() {
+        byte[] json = nonAsciiObject().getBytes(UTF_8);
+        JsonParser parser = Json.createParser(new ByteArrayInputStream(json));
+        testNonAsciiObject(parser);
+        parser.close();
+    }
+
+    public void testNonAsciiStreamUTF8SmallReads() {
+        // multi-byte chars and values are split across the reads
+        byte[] json = nonAsciiObject().getBytes(UTF_8);
+        InputStream in = new ByteArrayInputStream(json) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 3));
+            }
+        };
+        JsonParser parser = Json.createParser(in);
+        testNonAsciiObject(parser);
+        parser.close();
+    }
+
+    public void testNonAsciiReader() {
+        JsonParser parser = Json.createParser(new StringReader(nonAsciiObject()));
+        testNonAsciiObject(parser);
+        parser.close();
+    }
+
+    // 1, 2, 3 and 4 byte UTF-8 chars at varying offsets of the buffer
+    static final String NON_ASCII = "a\u00e9\u20ac\ud834\udd1e\u00e9";
+
+    static String nonAsciiObject() {
+        String str = "a\u00e9\u20ac\ud834\udd1e\\u00e9";
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < 3000; i++) {
+            if (i != 0) {
+                sb.append(',');
+            }
+            sb.append("\"").append(str).append(i).append("\":\"").append(str).append("\"");
+        }
+        return sb.append(",\"long\":\"").append(longValue()).append("\"}").toString();
+    }
+
+    static String longValue() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("long value ").append(i).append(i % 100 == 0 ? "\u00e9" : "");
+        }
+        return sb.toString();
+    }
+
+    static void testNonAsciiObject(JsonParser parser) {
+        assertEquals(Event.START_OBJECT, parser.next());
+        for (int i = 0; i < 3000; i++) {
+            assertEquals(Event.KEY_NAME, parser.next());
+            assertEquals(NON_ASCII + i, parser.getString());
+            assertEquals(Event.VALUE_STRING, parser.next());
+            assertEquals(NON_ASCII, parser.getString());
+        }
+        assertEquals(Event.KEY_NAME, parser.next());
+        assertEquals(Event.VALUE_STRING, parser.next());
+        assertEquals(longValue(), parser.getString());
+        assertEquals(Event.END_OBJECT, parser.next());
+    }
+
+    public void testBOMStreamUTF8() {
+        byte[] bom = { (byte)0xEF, (byte)0xBB, (byte)0xBF };
+        byte[] json = "[\"\u00e9\"]".getBytes(UTF_8);
+        byte[] bytes = new byte[bom.length + json.length];
+        System.arraycopy(bom, 0, bytes, 0, bom.length);
+        System.arraycopy(json, 0, bytes, bom.length, json.length);
+        JsonParser parser = Json.createParser(new ByteArrayInputStream(bytes));
+        assertEquals(Event.START_ARRAY, parser.next());
+        assertEquals(Event.VALUE_STRING, parser.next());
+        assertEquals("\u00e9", parser.getString());
+        assertEquals(Event.END_ARRAY, parser.next());
+        parser.close();
+    }
+
+    public void testWikiByteBuffer() throws Exception {
+        ByteBuffer buffer = ByteBuffer.wrap(wikiString().getBytes(UTF_8));
+        JsonParser parser = Json.createParserFactory().createParser(buffer);
+        testWiki(parser);
+        parser.close();
+        assertEquals(0, buffer.position());
+    }
+
+    public void testWikiDirectByteBuffer() throws Exception {
+        byte[] json = wikiString().getBytes(UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(json.length);
+        buffer.put(json).flip();
+        JsonParser parser = Json.createParserFactory().createParser(buffer);
+        testWiki(parser);
+        parser.close();
+    }
+
+    public void testWikiByteBufferUTF16LE() throws Exception {
+        ByteBuffer buffer = ByteBuffer.wrap(wikiString().getBytes(UTF_16LE));
+        JsonParser parser = Json.createParserFactory().createParser(buffer);
+        testWiki(parser);
+        parser.close();
+    }
+
+    public void testWikiChannel() throws Exception {
+        JsonParser parser = Json.createParserFactory().createParser(
+                Channels.newChannel(wikiStream()));
+        testWiki(parser);
+        parser.close();
+    }
+
+    public void testNonAsciiSegments() {
+        // multi-byte chars and values are split across heap, direct
+        // and read-only segments of varying sizes
+        byte[] json = nonAsciiObject().getBytes(UTF_8);
+        java.util.List<ByteBuffer> segments = new java.util.ArrayList<ByteBuffer>();
+        int off = 0;
+        for (int i = 0; off < json.length; i++) {
+            int len = Math.min(1 + i % 7, json.length - off);
+            ByteBuffer segment;
+            switch (i % 3) {
+                case 0:
+                    segment = ByteBuffer.wrap(json, off, len);
+                    break;
+                case 1:
+                    segment = ByteBuffer.allocateDirect(len);
+                    segment.put(json, off, len).flip();
+                    break;
+                default:
+                    segment = ByteBuffer.wrap(json, off, len).asReadOnlyBuffer();
+            }
+            segments.add(segment);
+            segments.add(ByteBuffer.allocate(0));
+            off += len;
+        }
+        JsonParser parser = Json.createParserFactory().createParser(
+                segments.toArray(new ByteBuffer[segments.size()]));
+        testNonAsciiObject(parser);
+        parser.close();
+    }
+
+    public void testBOMSegments() {
+        // BOM and a number across the segments of a sliced array
+        byte[] bytes = { 0, (byte)0xEF, (byte)0xBB, (byte)0xBF, '[', '1', '2', ']' };
+        ByteBuffer[] segments = {
+            ByteBuffer.wrap(bytes, 1, 2).slice(),
+            ByteBuffer.wrap(bytes, 3, 3).slice(),
+            ByteBuffer.wrap(bytes, 6, 2).slice()
+        };
+        JsonParser parser = Json.createParserFactory().createParser(segments);
+        assertEquals(Event.START_ARRAY, parser.next());
+        assertEquals(Event.VALUE_NUMBER, parser.next());
+        assertEquals(12, parser.getIntValue());
+        assertEquals(Event.END_ARRAY, parser.next());
+        parser.close();
+    }
+
+    public void testLargeByteBufferValueCapacity() throws Exception {
+        // a heap buffer is tokenized as one block, the value array should
+        // grow as the strings need and not to the size of the block
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 100000; i++) {
+            sb.append("\"value").append(i).append("\",");
+        }
+        char[] chars = new char[1000];
+        java.util.Arrays.fill(chars, 'x');
+        sb.append('"').append(chars).append("\"]");
+        ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(UTF_8));
+
+        JsonTokenizer tokenizer = new JsonTokenizer(new ByteBuffer[] { buffer }, 0);
+        assertEquals(JsonTokenizer.JsonToken.SQUAREOPEN, tokenizer.nextToken());
+        for (int i = 0; i < 100000; i++) {
+            assertEquals(JsonTokenizer.JsonToken.STRING, tokenizer.nextToken());
+            assertEquals("value"+i, tokenizer.getValue());
+            assertTrue(tokenizer.getValueCapacity() <= 128);
+            assertEquals(JsonTokenizer.JsonToken.COMMA, tokenizer.nextToken());
+        }
+        assertEquals(JsonTokenizer.JsonToken.STRING, tokenizer.nextToken());
+        assertEquals(new String(chars), tokenizer.getValue());
+        assertTrue(tokenizer.getValueCapacity() <= 2*chars.length);
+        assertEquals(JsonTokenizer.JsonToken.SQUARECLOSE, tokenizer.nextToken());
+        assertEquals(JsonTokenizer.JsonToken.EOF, tokenizer.nextToken());
+        tokenizer.close();
+    }
+
+    public void testWikiStructuralIndex() throws Exception {
+        JsonParser parser = structuralIndexFactory().createParser(wikiStream());
+        testWiki(parser);
+        parser.close();
+    }
+
+    public void testNonAsciiStructuralIndex() {
+        byte[] json = nonAsciiObject().getBytes(UTF_8);
+        JsonParser parser = structuralIndexFactory().createParser(new ByteArrayInputStream(json));
+        testNonAsciiObject(parser);
+        parser.close();
+    }
+
+    public void testEscapesStructuralIndex() {
+        // escaped quotes and backslashes at all the offsets of a word
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 16; i++) {
+            sb.append("\"");
+            for (int j = 0; j < i; j++) {
+                sb.append('x');
+            }
+            sb.append("\\\\\\\"\\\\\", {\"\\\"\":[true,false,null,-1.5e3,0]}, \"\", ");
+        }
+        sb.append("12]");
+        String json = sb.toString();
+
+        JsonParser expected = Json.createParser(new StringReader(json));
+        JsonParser actual = structuralIndexFactory().createParser(
+                new ByteArrayInputStream(json.getBytes(UTF_8)));
+        while (expected.hasNext()) {
+            assertTrue(actual.hasNext());
+            Event event = expected.next();
+            assertEquals(event, actual.next());
+            if (event == Event.KEY_NAME || event == Event.VALUE_STRING || event == Event.VALUE_NUMBER) {
+                assertEquals(expected.getString(), actual.getString());
+            }
+        }
+        assertFalse(actual.hasNext());
+        expected.close();
+        actual.close();
+    }
+
+    public void testInvalidLiteral() {
+        try {
+            JsonParser parser = Json.createParser(new StringReader("[tru]"));
+            parser.next();
+            parser.next();
+            fail("Expected JsonParsingException for invalid literal");
+        } catch (JsonParsingException expected) {
+            // no-op
+        }
+        try {
+            JsonParser parser = structuralIndexFactory().createParser(
+                    new ByteArrayInputStream("[nul]".getBytes(UTF_8)));
+            parser.next();
+            parser.next();
+            fail("Expected JsonParsingException for invalid literal");
+        } catch (JsonParsingException expected) {
+            // no-op
+        }
+        // the index has only the start of a literal, the chars after it
+        // must be checked too
+        String[] invalid = { "[truex]", "[nullnull,1]", "{\"a\":falsey}" };
+        for (String json : invalid) {
+            JsonParser parser = structuralIndexFactory().createParser(
+                    new ByteArrayInputStream(json.getBytes(UTF_8)));
+            try {
+                while (parser.hasNext()) {
+                    parser.next();
+                }
+                fail("Expected JsonParsingException for invalid literal in "+json);
+            } catch (JsonParsingException expected) {
+                // no-op
+            }
+        }
+        JsonParser parser = structuralIndexFactory().createParser(
+                new ByteArrayInputStream("[true ,false]".getBytes(UTF_8)));
+        assertEquals(JsonParser.Event.START_ARRAY, parser.next());
+        assertEquals(JsonParser.Event.VALUE_TRUE, parser.next());
+        assertEquals(JsonParser.Event.VALUE_FALSE, parser.next());
+        assertEquals(JsonParser.Event.END_ARRAY, parser.next());
+    }
+
+    public void testNumbersReader() {
+        String[] numbers = {
+            "0", "-0", "7", "-7", "2147483647", "2147483648", "-2147483649",
+            "123456789012345678", "-123456789012345678",
+            "9223372036854775807", "-9223372036854775808",
+            "9223372036854775808", "-92233720368547758090",
+            "1.0", "-1.5", "1e2", "1E0", "1.0e1", "12.5E-1", "0.000"
+        };
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < numbers.length; i++) {
+            sb.append(i == 0 ? "" : ",").append(numbers[i]);
+        }
+        sb.append("]");
+        JsonParser parser = Json.createParser(new StringReader(sb.toString()));
+        assertEquals(Event.START_ARRAY, parser.next());
+        for (String number : numbers) {
+            BigDecimal expected = new BigDecimal(number);
+            assertEquals(Event.VALUE_NUMBER, parser.next());
+            assertEquals(number, parser.getString());
+            assertEquals(number, expected.scale() == 0
+                    ? JsonNumber.NumberType.INTEGER : JsonNumber.NumberType.DECIMAL,
+                    parser.getNumberType());
+            assertEquals(number, expected.intValue(), parser.getIntValue());
+            assertEquals(number, expected.longValue(), parser.getLongValue());
+            assertEquals(number, expected, parser.getBigDecimalValue());
+        }
+        assertEquals(Event.END_ARRAY, parser.next());
+        parser.close();
+    }
+
+    public void testDoubleValues() {
+        java.util.List<String> numbers = new java.util.ArrayList<String>(java.util.Arrays.asList(
+            "0", "-0", "0.0", "1", "-1.5", "0.1", "0.3", "3.141592653589793",
+            "1e23", "8.98846567431158e307", "1.7976931348623157e308",
+            "1.7976931348623158e308", "1.8e308", "4.9e-324", "2.4703282292062327e-324",
+            "2.4703282292062328e-324", "2.2250738585072011e-308",
+            "2.2250738585072012e-308", "9007199254740993", "9007199254740992.5",
+            "123456789012345678901234567890", "0.000000000000000000001",
+            "1e-400", "1e400", "-1e400", "7.2057594037927933e16",
+            "1.00000000000000011102230246251565404236316680908203125",
+            "12345678901234567890", "18446744073709551615"
+        ));
+        java.util.Random random = new java.util.Random(42);
+        for (int i = 0; i < 5000; i++) {
+            double d = Double.longBitsToDouble(random.nextLong());
+            if (!Double.isNaN(d) && !Double.isInfinite(d)) {
+                numbers.add(Double.toString(d));
+            }
+            numbers.add((random.nextLong() >>> random.nextInt(64))
+                    + "e" + (random.nextInt(700) - 350));
+        }
+
+        StringBuilder sb = new StringBuilder("[");
+        JsonArrayBuilder builder = new JsonArrayBuilder();
+        for (int i = 0; i < numbers.size(); i++) {
+            sb.append(i == 0 ? "" : ",").append(numbers.get(i));
+            builder.add(new BigDecimal(numbers.get(i)));
+        }
+        sb.append("]");
+        JsonParser parser = Json.createParser(new StringReader(sb.toString()));
+        JsonParser structureParser = Json.createParserFactory().createParser(builder.build());
+        assertEquals(Event.START_ARRAY, parser.next());
+        assertEquals(Event.START_ARRAY, structureParser.next());
+        for (String number : numbers) {
+            long expected = Double.doubleToRawLongBits(new BigDecimal(number).doubleValue());
+            assertEquals(Event.VALUE_NUMBER, parser.next());
+            assertEquals(number, expected, Double.doubleToRawLongBits(parser.getDoubleValue()));
+            assertEquals(Event.VALUE_NUMBER, structureParser.next());
+            assertEquals(number, expected, Double.doubleToRawLongBits(structureParser.getDoubleValue()));
+        }
+        assertEquals(Event.END_ARRAY, parser.next());
+        parser.close();
+        structureParser.close();
+    }
+
+    public void testCharSequenceReader() {
+        JsonParser parser = Json.createParser(new StringReader(CHARS_JSON));
+        testCharSequence(parser);
+        parser.close();
+    }
+
+    public void testCharSequenceStreamUTF8() throws Exception {
+        JsonParser parser = Json.createParser(
+                new ByteArrayInputStream(CHARS_JSON.getBytes(UTF_8)));
+        testCharSequence(parser);
+        parser.close();
+    }
+
+    public void testCharSequenceStructure() {
+        JsonObject object = new JsonReader(new StringReader(CHARS_JSON)).readObject();
+        JsonParser parser = Json.createParserFactory().createParser(object);
+        testCharSequence(parser);
+        parser.close();
+    }
+
+    private static final String CHARS_JSON =
+            "{\"from_user\":\"duke\", \"te\\u0078t\":\"a\\\"b\", \"\":\"\"}";
+
+    static void testCharSequence(JsonParser parser) {
+        assertEquals(Event.START_OBJECT, parser.next());
+        assertEquals(Event.KEY_NAME, parser.next());
+        assertEquals("from_user", parser.getCharSequence().toString());
+        assertTrue(parser.stringEquals("from_user"));
+        assertFalse(parser.stringEquals("from_use"));
+        assertTrue(parser.stringStartsWith("from_"));
+        assertFalse(parser.stringStartsWith("from_user_"));
+        assertEquals(Event.VALUE_STRING, parser.next());
+        CharSequence chars = parser.getCharSequence();
+        assertEquals(4, chars.length());
+        assertEquals('d', chars.charAt(0));
+        assertEquals("uk", chars.subSequence(1, 3).toString());
+        assertTrue(parser.stringEquals(new StringBuilder("duke")));
+        assertEquals(Event.KEY_NAME, parser.next());
+        assertTrue(parser.stringEquals("text"));
+        assertEquals(Event.VALUE_STRING, parser.next());
+        assertTrue(parser.stringEquals("a\"b"));
+        assertEquals(Event.KEY_NAME, parser.next());
+        assertEquals(0, parser.getCharSequence().length());
+        assertTrue(parser.stringEquals(""));
+        assertTrue(parser.stringStartsWith(""));
+        assertEquals(Event.VALUE_STRING, parser.next());
+        assertFalse(parser.stringEquals("duke"));
+        assertEquals(Event.END_OBJECT, parser.next());
+        try {
+            parser.getCharSequence();
+            fail("JsonParser#getCharSequence() should have thrown exception in END_OBJECT state");
+        } catch (IllegalStateException expected) {
+            // no-op
+        }
+    }
+
+    public void testSkipReader() {
+        JsonParser parser = Json.createParser(new StringReader(SKIP_JSON));
+        testSkip(parser);
+        parser.close();
+    }
+
+    public void testSkipStreamUTF8() {
+        JsonParser parser = Json.createParser(
+                new ByteArrayInputStream(SKIP_JSON.getBytes(UTF_8)));
+        testSkip(parser);
+        parser.close();
+    }
+
+    public void testSkipStructuralIndex() {
+        JsonParser parser = structuralIndexFactory().createParser(
+                new ByteArrayInputStream(SKIP_JSON.getBytes(UTF_8)));
+        testSkip(parser);
+        parser.close();
+    }
+
+    public void testSkipStructure() {
+        JsonObject object = new JsonReader(new StringReader(SKIP_JSON)).readObject();
+        JsonParser parser = Json.createParserFactory().createParser(object);
+        testSkip(parser);
+        parser.close();
+    }
+
+    public void testSkipRoot() {
+        JsonParser parser = Json.createParser(new StringReader("[1, [2, {\"a\":[]}], \"]\"]"));
+        assertEquals(Event.START_ARRAY, parser.next());
+        parser.skipChildren();
+        assertFalse(parser.hasNext());
+        parser.close();
+    }
+
+    public void testSkipEOF() {
+        JsonParser parser = Json.createParser(new StringReader("{\"a\":[1, {\"b\":\"]}\"}"));
+        assertEquals(Event.START_OBJECT, parser.next());
+        assertEquals(Event.KEY_NAME, parser.next());
+        try {
+            parser.skipValue();
+            fail("Expected JsonParsingException for unterminated array");
+        } catch (JsonParsingException expected) {
+            // no-op
+        }
+        parser.close();
+    }
+
+    private static final String SKIP_JSON = "{\"a\":{\"b\":[1,{\"}\":\"\\\"]\"}],\"c\":\"\u00e9{\"}, "
+            + "\"d\":[[],{}], \"e\":\"x\", \"f\":12, \"g\":[\"[\", 3, {\"h\":null}], \"i\":true}";
+
+    static void testSkip(JsonParser parser) {
+        assertEquals(Event.START_OBJECT, parser.next());
+        assertEquals(Event.KEY_NAME, parser.next());
+        parser.skipValue();
+        assertEquals(Event.KEY_NAME, parser.next());
+        assertEquals("d", parser.getString());
+        assertEquals(Event.START_ARRAY, parser.next());
+        parser.skipChildren();
+        assertEquals(Event.KEY_NAME, parser.next());
+        assertEquals("e", parser.getString());
+        parser.skipValue();
+        assertEquals(Event.KEY_NAME, parser.next());
+        assertEquals("f", parser.getString());
+        assertEquals(Event.VALUE_NUMBER, parser.next());
+        parser.skipChildren();
+        assertEquals(12, parser.getIntValue());
+        assertEquals(Event.KEY_NAME, parser.next());
+        assertEquals("g", parser.getString());
+        assertEquals(Event.START_ARRAY, parser.next());
+        assertEquals(Event.VALUE_STRING, parser.next());
+        assertEquals("[", parser.getString());
+        assertEquals(Event.VALUE_NUMBER, parser.next());
+        assertEquals(Event.START_OBJECT, parser.next());
+        parser.skipChildren();
+        assertEquals(Event.END_ARRAY, parser.next());
+        assertEquals(Event.KEY_NAME, parser.next());
+        assertEquals("i", parser.getString());
+        assertEquals(Event.VALUE_TRUE, parser.next());
+        assertEquals(Event.END_OBJECT, parser.next());
+        assertFalse(parser.hasNext());
+        try {
+            parser.skipValue();
+            fail("JsonParser#skipValue() should have thrown exception in END_OBJECT state");
+        } catch (IllegalStateException expected) {
+            // no-op
+        }
+    }
+
+    public void testMismatchedBrackets() {
+        for (String json : new String[] { "{\"a\":{}]", "[[1]}", "[{\"a\":[}]" }) {
+            JsonParser parser = Json.createParser(new StringReader(json));
+            try {
+                while (parser.hasNext()) {
+                    parser.next();
+                }
+                fail("Expected JsonParsingException for "+json);
+            } catch (JsonParsingException expected) {
+                // no-op
+            }
+        }
+    }
+
+    public void testDeepNesting() {
+        // objects and arrays alternate, deeper than one word of the nesting bits
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            sb.append(i % 3 == 0 ? "{\"a\":" : "[");
+        }
+        sb.append("1");
+        for (int i = 199; i >= 0; i--) {
+            sb.append(i % 3 == 0 ? ",\"b\":2}" : ",2]");
+        }
+        JsonParser parser = Json.createParser(new StringReader(sb.toString()));
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i % 3 == 0 ? Event.START_OBJECT : Event.START_ARRAY, parser.next());
+            if (i % 3 == 0) {
+                assertEquals(Event.KEY_NAME, parser.next());
+            }
+        }
+        assertEquals(Event.VALUE_NUMBER, parser.next());
+        for (int i = 199; i >= 0; i--) {
+            if (i % 3 == 0) {
+                assertEquals(Event.KEY_NAME, parser.next());
+            }
+            assertEquals(Event.VALUE_NUMBER, parser.next());
+            assertEquals(i % 3 == 0 ? Event.END_OBJECT : Event.END_ARRAY, parser.next());
+        }
+        assertFalse(parser.hasNext());
+        parser.close();
+    }
+
+    public void testFeedWiki() {
+        String json = wikiString();
+        for (int chunk : new int[] { 1, 2, 7, 100, Integer.MAX_VALUE }) {
+            testFeed(json, chunk);
+        }
+    }
+
+    public void testFeedNonAscii() {
+        // chunk boundaries fall inside multi-byte chars, escapes and numbers
+        String json = nonAsciiObject()+" ";
+        testFeed(json, 1);
+        testFeed(json, 3);
+        testFeed("[\"a\\\"b\\\\\", 1234.5e-3, -0, true, false, null, {\"x\":[]}]", 1);
+        testFeed(CHARS_JSON, 2);
+    }
+
+    // Feeds the JSON in chunks, and compares the events with a parser
+    // that reads the whole JSON
+    static void testFeed(String json, int chunk) {
+        byte[] bytes = json.getBytes(UTF_8);
+        JsonParser expected = Json.createParser(new StringReader(json));
+        JsonFeedParser parser = Json.createParserFactory().createFeedParser();
+        int fed = 0;
+        while (parser.hasNext()) {
+            Event event = parser.next();
+            if (event == Event.NEED_MORE_INPUT) {
+                if (fed == bytes.length) {
+                    parser.endOfInput();
+                } else {
+                    int len = Math.min(chunk, bytes.length - fed);
+                    parser.feed(bytes, fed, len);
+                    fed += len;
+                }
+                continue;
+            }
+            assertEquals(expected.next(), event);
+            if (event == Event.KEY_NAME || event == Event.VALUE_STRING
+                    || event == Event.VALUE_NUMBER) {
+                assertEquals(expected.getString(), parser.getString());
+            }
+        }
+        assertFalse(expected.hasNext());
+        expected.close();
+        parser.close();
+    }
+
+    public void testFeedNeedMoreInput() {
+        JsonFeedParser parser = Json.createParserFactory().createFeedParser();
+        assertEquals(Event.NEED_MORE_INPUT, parser.next());
+        parser.feed(ByteBuffer.wrap("{\"name\":\"val".getBytes(UTF_8)));
+        assertEquals(Event.START_OBJECT, parser.next());
+        assertEquals(Event.KEY_NAME, parser.next());
+        assertEquals("name", parser.getString());
+        assertEquals(Event.NEED_MORE_INPUT, parser.next());
+        assertEquals(Event.NEED_MORE_INPUT, parser.next());
+        parser.feed(ByteBuffer.wrap("ue\",\"n\":12".getBytes(UTF_8)));
+        assertEquals(Event.VALUE_STRING, parser.next());
+        assertEquals("value", parser.getString());
+        assertEquals(Event.KEY_NAME, parser.next());
+        // the number may continue in the next bytes
+        assertEquals(Event.NEED_MORE_INPUT, parser.next());
+        parser.feed(ByteBuffer.wrap("34}".getBytes(UTF_8)));
+        assertEquals(Event.VALUE_NUMBER, parser.next());
+        assertEquals(1234, parser.getIntValue());
+        assertEquals(Event.END_OBJECT, parser.next());
+        assertFalse(parser.hasNext());
+        parser.close();
+    }
+
+    public void testFeedGetJsonValue() {
+        JsonFeedParser parser = Json.createParserFactory().createFeedParser();
+        byte[] bytes = "{\"a\":[1,{\"b\":true}],\"c\":\"d\"}".getBytes(UTF_8);
+        parser.feed(bytes, 0, bytes.length);
+        parser.endOfInput();
+        JsonObject object = new JsonReader(parser).readObject();
+        assertEquals(new JsonObjectBuilder()
+                .add("a", new JsonArrayBuilder()
+                        .add(1)
+                        .add(new JsonObjectBuilder().add("b", true)))
+                .add("c", "d")
+                .build(), object);
+
+        // the fed input ends within the value
+        parser = Json.createParserFactory().createFeedParser();
+        bytes = "[1,[2,3".getBytes(UTF_8);
+        parser.feed(bytes, 0, bytes.length);
+        assertEquals(Event.START_ARRAY, parser.next());
+        try {
+            parser.getJsonValue(JsonArray.class);
+            fail("Expected JsonParsingException for a value that is not fed entirely");
+        } catch (JsonParsingException expected) {
+            // no-op
+        }
+    }
+
+    public void testFeedSkip() {
+        JsonFeedParser parser = Json.createParserFactory().createFeedParser();
+        byte[] bytes = "{\"a\":[1,{\"b\":\"]\"}],\"c\":{\"d\":2},\"e\":3}".getBytes(UTF_8);
+        parser.feed(bytes, 0, bytes.length);
+        parser.endOfInput();
+        assertEquals(Event.START_OBJECT, parser.next());
+        assertEquals(Event.KEY_NAME, parser.next());
+        assertEquals(Event.START_ARRAY, parser.next());
+        parser.skipChildren();
+        assertEquals(Event.KEY_NAME, parser.next());
+        parser.skipValue();
+        assertEquals(Event.KEY_NAME, parser.next());
+        assertEquals("e", parser.getString());
+        assertEquals(Event.VALUE_NUMBER, parser.next());
+        assertEquals(3, parser.getIntValue());
+        assertEquals(Event.END_OBJECT, parser.next());
+        assertFalse(parser.hasNext());
+
+        // the fed input ends within the value
+        parser = Json.createParserFactory().createFeedParser();
+        bytes = "[1,[2,3".getBytes(UTF_8);
+        parser.feed(bytes, 0, bytes.length);
+        assertEquals(Event.START_ARRAY, parser.next());
+        try {
+            parser.skipChildren();
+            fail("Expected JsonParsingException for a value that is not fed entirely");
+        } catch (JsonParsingException expected) {
+            // no-op
+        }
+    }
+
+    public void testFeedIncompleteInput() {
+        for (String json : new String[] { "{\"a\":", "[\"abc", "[tr", "" }) {
+            JsonFeedParser parser = Json.createParserFactory().createFeedParser();
+            byte[] bytes = json.getBytes(UTF_8);
+            parser.feed(bytes, 0, bytes.length);
+            parser.endOfInput();
+            try {
+                while (parser.hasNext()) {
+                    assertNotSame(Event.NEED_MORE_INPUT, parser.next());
+                }
+                fail("Expected JsonException for "+json);
+            } catch (JsonException expected) {
+                // no-op
+            }
+            try {
+                parser.feed(bytes, 0, bytes.length);
+                fail("Expected IllegalStateException after endOfInput()");
+            } catch (IllegalStateException expected) {
+                // no-op
+            }
+        }
+    }
+
+    public void testMultipleValuesReader() {
+        JsonParserFactory factory = multipleValuesFactory();
+        testMultipleValues(factory.createParser(new StringReader(MULTIPLE_VALUES_JSON)));
+    }
+
+    public void testMultipleValuesStreamUTF8() {
+        JsonParserFactory factory = multipleValuesFactory();
+        testMultipleValues(factory.createParser(
+                new ByteArrayInputStream(MULTIPLE_VALUES_JSON.getBytes(UTF_8))));
+    }
+
+    public void testMultipleValuesStructuralIndex() {
+        Map<String, Object> config = new HashMap<String, Object>();
+        config.put(JsonParserFactoryImpl.MULTIPLE_VALUES, true);
+        config.put(JsonParserFactoryImpl.STRUCTURAL_INDEX, true);
+        JsonParserFactory factory = Json.createParserFactory(config);
+        testMultipleValues(factory.createParser(
+                new ByteArrayInputStream(MULTIPLE_VALUES_JSON.getBytes(UTF_8))));
+    }
+
+    public void testMultipleValuesFeed() {
+        JsonFeedParser parser = multipleValuesFactory().createFeedParser();
+        byte[] bytes = MULTIPLE_VALUES_JSON.getBytes(UTF_8);
+        int fed = 0;
+        java.util.List<Event> events = new java.util.ArrayList<Event>();
+        while (parser.hasNext()) {
+            Event event = parser.next();
+            if (event == Event.NEED_MORE_INPUT) {
+                if (fed == bytes.length) {
+                    parser.endOfInput();
+                } else {
+                    parser.feed(bytes, fed++, 1);
+                }
+            } else {
+                events.add(event);
+            }
+        }
+        assertEquals(MULTIPLE_VALUES_EVENTS, events);
+        parser.close();
+    }
+
+    // texts back to back, separated by whitespace and RFC 7464 RS chars
+    private static final String MULTIPLE_VALUES_JSON =
+            "{\"a\":1}[2]{}\n\u001e[\"b\"]\n\u001e\u001e {\"c\":[]}\n\u001e";
+    private static final java.util.List<Event> MULTIPLE_VALUES_EVENTS = java.util.Arrays.asList(
+            Event.START_OBJECT, Event.KEY_NAME, Event.VALUE_NUMBER, Event.END_OBJECT,
+            Event.START_ARRAY, Event.VALUE_NUMBER, Event.END_ARRAY,
+            Event.START_OBJECT, Event.END_OBJECT,
+            Event.START_ARRAY, Event.VALUE_STRING, Event.END_ARRAY,
+            Event.START_OBJECT, Event.KEY_NAME, Event.START_ARRAY, Event.END_ARRAY, Event.END_OBJECT);
+
+    static void testMultipleValues(JsonParser parser) {
+        java.util.List<Event> events = new java.util.ArrayList<Event>();
+        while (parser.hasNext()) {
+            events.add(parser.next());
+        }
+        assertEquals(MULTIPLE_VALUES_EVENTS, events);
+        try {
+            parser.next();
+            fail("Expected NoSuchElementException");
+        } catch (NoSuchElementException expected) {
+            // no-op
+        }
+        parser.close();
+    }
+
+    public void testMultipleValuesSkip() {
+        JsonParser parser = multipleValuesFactory().createParser(
+                new StringReader("[1,[2]] {\"a\":{\"b\":3}}"));
+        assertEquals(Event.START_ARRAY, parser.next());
+        parser.skipChildren();
+        assertTrue(parser.hasNext());
+        assertEquals(Event.START_OBJECT, parser.next());
+        assertEquals(Event.KEY_NAME, parser.next());
+        parser.skipValue();
+        assertEquals(Event.END_OBJECT, parser.next());
+        assertFalse(parser.hasNext());
+        parser.close();
+    }
+
+    public void testMultipleValuesEmpty() {
+        JsonParser parser = multipleValuesFactory().createParser(new StringReader(" \n\u001e "));
+        assertFalse(parser.hasNext());
+        parser.close();
+    }
+
+    public void testMultipleValuesErrors() {
+        // a separator in a text, and a truncated text
+        for (String json : new String[] { "{}[\u001e]", "{}{\"a\":" }) {
+            JsonParser parser = multipleValuesFactory().createParser(new StringReader(json));
+            try {
+                while (parser.hasNext()) {
+                    parser.next();
+                }
+                fail("Expected JsonParsingException for "+json);
+            } catch (JsonParsingException expected) {
+                // no-op
+            }
+            parser.close();
+        }
+    }
+
+    public void testSingleValue() {
+        // without the property, the parser stops after the first text
+        JsonParser parser = Json.createParser(new StringReader("[1] [2]"));
+        assertEquals(Event.START_ARRAY, parser.next());
+        assertEquals(Event.VALUE_NUMBER, parser.next());
+        assertEquals(Event.END_ARRAY, parser.next());
+        assertFalse(parser.hasNext());
+        parser.close();
+    }
+
+    public void testGetJsonValueReader() {
+        testGetJsonValue(Json.createParser(new StringReader(RECORDS)));
+    }
+
+    public void testGetJsonValueStructuralIndex() {
+        testGetJsonValue(structuralIndexFactory().createParser(
+                new ByteArrayInputStream(RECORDS.getBytes(UTF_8))));
+    }
+
+    public void testGetJsonValueStructure() {
+        JsonReader reader = new JsonReader(new StringReader(RECORDS));
+        JsonObject envelope = reader.readObject();
+        reader.close();
+        testGetJsonValue(Json.createParserFactory().createParser(envelope));
+    }
+
+    private static final String RECORDS = "{\"count\":3,\"records\":[" +
+            "{\"id\":1,\"tags\":[\"a\",\"b\"]},{\"id\":2,\"tags\":[]},{\"id\":3,\"tags\":[{}]}]," +
+            "\"next\":null}";
+
+    private void testGetJsonValue(JsonParser parser) {
+        assertEquals(Event.START_OBJECT, parser.next());
+        assertEquals(Event.KEY_NAME, parser.next());
+        assertEquals(Event.VALUE_NUMBER, parser.next());
+        assertEquals(3, parser.getJsonValue(JsonNumber.class).intValue());
+        assertEquals(Event.KEY_NAME, parser.next());
+        assertEquals(Event.START_ARRAY, parser.next());
+        int id = 0;
+        while (parser.next() == Event.START_OBJECT) {
+            JsonObject record = parser.getJsonValue(JsonObject.class);
+            assertEquals(++id, record.getInt("id"));
+        }
+        assertEquals(3, id);
+        assertEquals(Event.KEY_NAME, parser.next());
+        assertEquals("next", parser.getString());
+        assertEquals(Event.VALUE_NULL, parser.next());
+        assertEquals(JsonValue.NULL, parser.getJsonValue(JsonValue.class));
+        assertEquals(Event.END_OBJECT, parser.next());
+        assertFalse(parser.hasNext());
+        parser.close();
+    }
+
+    public void testGetJsonValueWrongState() {
+        JsonParser parser = Json.createParser(new StringReader("{\"a\":\"b\"}"));
+        try {
+            parser.getJsonValue(JsonValue.class);
+            fail("getJsonValue() should throw IllegalStateException before the first event");
+        } catch (IllegalStateException expected) {
+            // no-op
+        }
+        parser.next();
+        parser.next();
+        try {
+            parser.getJsonValue(JsonValue.class);
+            fail("getJsonValue() should throw IllegalStateException in KEY_NAME state");
+        } catch (IllegalStateException expected) {
+            // no-op
+        }
+        parser.next();
+        try {
+            parser.getJsonValue(JsonNumber.class);
+            fail("getJsonValue() should throw ClassCastException for a string");
+        } catch (ClassCastException expected) {
+            // no-op
+        }
+        assertEquals("b", parser.getJsonValue(JsonString.class).getValue());
+        parser.close();
+    }
+
+    public void testGetJsonValueErrors() {
+        String[] jsons = { "[{\"a\" 1}]", "[{\"a\":1,}]", "[{1:2}]", "[[1 2]]", "[[1,]]", "[[,]]", "[[1" };
+        for (String json : jsons) {
+            String expected = null;
+            try {
+                JsonParser parser = Json.createParser(new StringReader(json));
+                while (parser.hasNext()) {
+                    parser.next();
+                }
+                fail("Expected JsonParsingException for "+json);
+            } catch (JsonParsingException e) {
+                expected = e.getMessage();
+            }
+            JsonParser parser = Json.createParser(new StringReader(json));
+            parser.next();
+            parser.next();
+            try {
+                parser.getJsonValue(JsonStructure.class);
+                fail("Expected JsonParsingException for "+json);
+            } catch (JsonParsingException e) {
+                assertEquals(expected, e.getMessage());
+            }
+        }
+    }
+
+    public void testDepthLimit() {
+        JsonParserFactory factory = limitFactory(JsonParserFactoryImpl.MAX_DEPTH, 3);
+        parseAll(factory, "[{\"a\":[1]},[[]]]");
+        assertLimit(factory, "[{\"a\":[[1]]}]");
+        assertReadLimit(factory, "[{\"a\":[[1]]}]");
+    }
+
+    public void testTokenLengthLimit() {
+        JsonParserFactory factory = limitFactory(JsonParserFactoryImpl.MAX_TOKEN_LENGTH, 5);
+        parseAll(factory, "{\"abcde\":\"12345\",\"a\":-1234}");
+        assertLimit(factory, "{\"abcdef\":1}");
+        assertLimit(factory, "[\"\\n\\n\\n\\n\\n\\n\"]");
+        assertLimit(factory, "[123456]");
+
+        // the buffers stop growing well before the end of a long string
+        StringBuilder sb = new StringBuilder("[\"");
+        for (int i = 0; i < 100000; i++) {
+            sb.append("abcdefghij");
+        }
+        String json = sb.append("\"]").toString();
+        assertLimit(factory, json);
+        assertStreamLimit(factory, json);
+    }
+
+    public void testNumberLengthLimit() {
+        JsonParserFactory factory = limitFactory(JsonParserFactoryImpl.MAX_NUMBER_LENGTH, 6);
+        parseAll(factory, "[\"1234567890\",-1.5e1,123456]");
+        assertLimit(factory, "[1234567]");
+        assertLimit(factory, "[1.5e+100]");
+        assertStreamLimit(factory, "[1.5e+100]");
+    }
+
+    public void testDocumentSizeLimit() {
+        JsonParserFactory factory = limitFactory(JsonParserFactoryImpl.MAX_DOCUMENT_SIZE, 10);
+        parseAll(factory, "[1, 2, 3 ]");
+        assertLimit(factory, "[1, 2, 3, 4]");
+        assertStreamLimit(factory, "[1, 2, 3, 4]");
+        try {
+            factory.createParser(ByteBuffer.wrap("[1, 2, 3, 4]".getBytes(UTF_8)));
+            fail("Expected JsonParsingException for a large buffer");
+        } catch (JsonParsingException expected) {
+            // no-op
+        }
+        JsonFeedParser parser = factory.createFeedParser();
+        parser.feed("[1, 2, ".getBytes(UTF_8), 0, 7);
+        try {
+            parser.feed("3, 4]".getBytes(UTF_8), 0, 5);
+            fail("Expected JsonParsingException for a large feed");
+        } catch (JsonParsingException expected) {
+            // no-op
+        }
+    }
+
+    public void testMembersLimit() {
+        JsonParserFactory factory = limitFactory(JsonParserFactoryImpl.MAX_MEMBERS, 4);
+        parseAll(factory, "{\"a\":[1,2],\"b\":{}}");
+        assertLimit(factory, "{\"a\":[1,2],\"b\":{\"c\":null}}");
+        assertReadLimit(factory, "[[1,2],[3]]");
+    }
+
+    private static JsonParserFactory limitFactory(String name, Object value) {
+        Map<String, Object> config = new HashMap<String, Object>();
+        config.put(name, value);
+        JsonParserFactory factory = Json.createParserFactory(config);
+        assertEquals(value, factory.getConfigInUse().get(name));
+        return factory;
+    }
+
+    private static void parseAll(JsonParserFactory factory, String json) {
+        JsonParser parser = factory.createParser(new StringReader(json));
+        while (parser.hasNext()) {
+            parser.next();
+        }
+        parser.close();
+    }
+
+    private static void assertLimit(JsonParserFactory factory, String json) {
+        try {
+            parseAll(factory, json);
+            fail("Expected JsonParsingException for "+json);
+        } catch (JsonParsingException expected) {
+            // no-op
+        }
+    }
+
+    private static void assertStreamLimit(JsonParserFactory factory, String json) {
+        JsonParser parser = null;
+        try {
+            parser = factory.createParser(new ByteArrayInputStream(json.getBytes(UTF_8)));
+            while (parser.hasNext()) {
+                parser.next();
+            }
+            fail("Expected JsonParsingException for "+json);
+        } catch (JsonParsingException expected) {
+            // no-op
+        }
+    }
+
+    // the value is read by getJsonValue() instead of next()
+    private static void assertReadLimit(JsonParserFactory factory, String json) {
+        JsonParser parser = factory.createParser(new StringReader(json));
+        parser.next();
+        try {
+            parser.getJsonValue(JsonArray.class);
+            fail("Expected JsonParsingException for "+json);
+        } catch (JsonParsingException expected) {
+            // no-op
+        }
+    }
+
+    static JsonParserFactory multipleValuesFactory() {
+        Map<String, Object> config = new HashMap<String, Object>();
+        config.put(JsonParserFactoryImpl.MULTIPLE_VALUES, true);
+        return Json.createParserFactory(config);
+    }
+
+    static JsonParserFactory structuralIndexFactory() {
+        Map<String, Object> config = new HashMap<String, Object>();
+        config.put(JsonParserFactoryImpl.STRUCTURAL_INDEX, true);
+        return Json.createParserFactory(config);
+    }
+
     static String wikiString() {
         java.util.Scanner scanner = new java.util.Scanner(wikiReader())
                 .useDelimiter("\\A");
@@ -0,0 +1,182 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import javax.json.stream.JsonParser;
+
+import junit.framework.TestCase;
+
+/**
+ * @author Jitendra Kotamraju
+ */
+public class JsonPointerReaderTest extends TestCase {
+    private static final String JSON =
+            "{\"meta\":{\"count\":3,\"skip\":[1,{\"id\":0}]}," +
+            "\"data\":{\"items\":[" +
+                "{\"id\":1,\"name\":\"a\",\"tags\":[\"x\",\"y\"]}," +
+                "{\"name\":\"b\",\"id\":2}," +
+                "{\"id\":{\"v\":3},\"a/b\":true,\"m~n\":null}]}," +
+            "\"data2\":[]}";
+
+    public JsonPointerReaderTest(String testName) {
+        super(testName);
+    }
+
+    public void testWildcard() {
+        List<JsonPointerReader.Match> matches = read(parser(), "/data/items/*/id");
+        assertEquals(3, matches.size());
+        assertEquals("/data/items/0/id", matches.get(0).getPath());
+        assertEquals(1, ((JsonNumber) matches.get(0).getValue()).intValue());
+        assertEquals("/data/items/1/id", matches.get(1).getPath());
+        assertEquals(2, ((JsonNumber) matches.get(1).getValue()).intValue());
+        assertEquals("/data/items/2/id", matches.get(2).getPath());
+        assertEquals(3, ((JsonObject) matches.get(2).getValue()).getInt("v"));
+        assertEquals("/data/items/*/id", matches.get(2).getPointer());
+    }
+
+    public void testPointers() {
+        List<JsonPointerReader.Match> matches = read(parser(),
+                "/meta/count", "/data/items/1/name", "/data/items/2/a~1b", "/data/items/2/m~0n",
+                "/data/items/3", "/data/items/01", "/nothing", "/data/items/0/tags/*");
+        // in the document order
+        assertEquals(Arrays.asList("/meta/count", "/data/items/0/tags/0", "/data/items/0/tags/1",
+                "/data/items/1/name", "/data/items/2/a~1b", "/data/items/2/m~0n"), paths(matches));
+        assertEquals(3, ((JsonNumber) matches.get(0).getValue()).intValue());
+        assertEquals("y", ((JsonString) matches.get(2).getValue()).getValue());
+        assertEquals("b", ((JsonString) matches.get(3).getValue()).getValue());
+        assertEquals(JsonValue.TRUE, matches.get(4).getValue());
+        assertEquals(JsonValue.NULL, matches.get(5).getValue());
+        assertEquals("/data/items/0/tags/*", matches.get(1).getPointer());
+    }
+
+    public void testNestedPointers() {
+        // the pointers that go through a matched value are found in it
+        List<JsonPointerReader.Match> matches = read(parser(),
+                "/data/items/0", "/data/items/0/tags/1", "/data/items/*/name");
+        assertEquals(Arrays.asList("/data/items/0", "/data/items/0/tags/1", "/data/items/0/name",
+                "/data/items/1/name"), paths(matches));
+        assertEquals("y", ((JsonString) matches.get(1).getValue()).getValue());
+    }
+
+    public void testWholeDocument() {
+        List<JsonPointerReader.Match> matches = read(parser(), "");
+        assertEquals(1, matches.size());
+        JsonReader reader = new JsonReader(new StringReader(JSON));
+        assertEquals(reader.read(), matches.get(0).getValue());
+        reader.close();
+    }
+
+    public void testStructureParser() {
+        JsonReader reader = new JsonReader(new StringReader(JSON));
+        JsonObject object = reader.readObject();
+        reader.close();
+        List<JsonPointerReader.Match> matches = read(Json.createParserFactory().createParser(object),
+                "/data/items/*/id");
+        assertEquals(3, matches.size());
+        assertEquals(2, ((JsonNumber) matches.get(1).getValue()).intValue());
+    }
+
+    public void testArrayRoot() {
+        JsonParser parser = Json.createParser(new StringReader("[[1,2],[3],[4,5]]"));
+        List<JsonPointerReader.Match> matches = read(parser, "/*/1", "/1");
+        assertEquals(3, matches.size());
+        assertEquals("/0/1", matches.get(0).getPath());
+        assertEquals("/1", matches.get(1).getPath());
+        assertTrue(matches.get(1).getValue() instanceof JsonArray);
+        assertEquals("/2/1", matches.get(2).getPath());
+        assertEquals(5, ((JsonNumber) matches.get(2).getValue()).intValue());
+    }
+
+    public void testInvalidPointer() {
+        for (String pointer : new String[] { "a", "/a~2", "/a~" }) {
+            try {
+                new JsonPointerReader(parser(), pointer);
+                fail("Expected IllegalArgumentException for "+pointer);
+            } catch (IllegalArgumentException expected) {
+                // no-op
+            }
+        }
+    }
+
+    public void testFeedParser() {
+        JsonParser parser = Json.createParserFactory().createFeedParser();
+        try {
+            new JsonPointerReader(parser, "/data");
+            fail("Expected IllegalArgumentException for a JsonFeedParser");
+        } catch (IllegalArgumentException expected) {
+            // no-op
+        }
+    }
+
+    private static List<String> paths(List<JsonPointerReader.Match> matches) {
+        List<String> paths = new ArrayList<String>();
+        for (JsonPointerReader.Match match : matches) {
+            paths.add(match.getPath());
+        }
+        return paths;
+    }
+
+    private static JsonParser parser() {
+        return Json.createParser(new StringReader(JSON));
+    }
+
+    private static List<JsonPointerReader.Match> read(JsonParser parser, String... pointers) {
+        JsonPointerReader reader = new JsonPointerReader(parser, pointers);
+        List<JsonPointerReader.Match> matches = new ArrayList<JsonPointerReader.Match>();
+        while (reader.hasNext()) {
+            matches.add(reader.next());
+        }
+        reader.close();
+        return matches;
+    }
+}
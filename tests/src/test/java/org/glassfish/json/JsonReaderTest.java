@@ -43,14 +43,23 @@ package org.glassfish.json;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 
+import javax.json.Json;
 import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
 import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonProjection;
 import javax.json.JsonReader;
 import javax.json.JsonStructure;
 import javax.json.JsonValue;
+import javax.json.stream.JsonFeedParser;
+import javax.json.stream.JsonParser;
 
 import junit.framework.TestCase;
 
@@ -76,6 +85,143 @@ public class JsonReaderTest extends TestCase {
         assertEquals("\u0000\u00ff\u00ff", str);
     }
 
+    public void testSharedKeys() throws Exception {
+        JsonReader reader = new JsonReader(new StringReader(
+                "[{\"id\":1,\"name\":\"a\"},{\"id\":2,\"name\":\"b\"}]"));
+        JsonArray array = reader.readArray();
+        reader.close();
+        Iterator<String> keys1 = array.getObject(0).keySet().iterator();
+        Iterator<String> keys2 = array.getObject(1).keySet().iterator();
+        assertSame(keys1.next(), keys2.next());
+        assertSame(keys1.next(), keys2.next());
+    }
+
+    public void testKeyTableDisabled() throws Exception {
+        Map<String, Object> config = new HashMap<String, Object>();
+        config.put(JsonParserFactoryImpl.KEY_TABLE_SIZE, 0);
+        JsonReader reader = new JsonReader(new StringReader(
+                "[{\"id\":1},{\"id\":2}]"), config);
+        assertEquals(0, reader.getConfigInUse().get(JsonParserFactoryImpl.KEY_TABLE_SIZE));
+        JsonArray array = reader.readArray();
+        reader.close();
+        String key1 = array.getObject(0).keySet().iterator().next();
+        String key2 = array.getObject(1).keySet().iterator().next();
+        assertEquals(key1, key2);
+        assertNotSame(key1, key2);
+    }
+
+    public void testValueTable() throws Exception {
+        Map<String, Object> config = new HashMap<String, Object>();
+        config.put(JsonParserFactoryImpl.VALUE_TABLE_SIZE, 64);
+        JsonReader reader = new JsonReader(new StringReader(
+                "[{\"s\":\"USD\",\"n\":200},{\"s\":\"USD\",\"n\":200}]"), config);
+        assertEquals(64, reader.getConfigInUse().get(JsonParserFactoryImpl.VALUE_TABLE_SIZE));
+        JsonArray array = reader.readArray();
+        reader.close();
+        JsonObject object1 = array.getObject(0);
+        JsonObject object2 = array.getObject(1);
+        assertSame(object1.get("s"), object2.get("s"));
+        assertSame(object1.get("n"), object2.get("n"));
+        assertEquals(new JsonObjectBuilder().add("s", "USD").add("n", 200).build(), object1);
+    }
+
+    public void testProjection() throws Exception {
+        Reader wikiReader = new InputStreamReader(JsonReaderTest.class.getResourceAsStream("/wiki.json"));
+        JsonReader reader = new JsonReader(wikiReader);
+        JsonObject person = reader.readObject(new JsonProjection()
+                .add("age")
+                .add("firstName")
+                .add("address", new JsonProjection()
+                        .add("city")
+                        .add("country"))
+                .add("phoneNumber", new JsonProjection()
+                        .add("number")));
+        reader.close();
+        JsonObject expected = new JsonObjectBuilder()
+                .add("firstName", "John")
+                .add("age", 25)
+                .add("address", new JsonObjectBuilder()
+                        .add("city", "New York"))
+                .add("phoneNumber", new JsonArrayBuilder()
+                        .add(new JsonObjectBuilder().add("number", "212 555-1234"))
+                        .add(new JsonObjectBuilder().add("number", "646 555-4567")))
+                .build();
+        assertEquals(expected, person);
+        // in the order of the input
+        assertEquals(Arrays.asList("firstName", "age", "address", "phoneNumber"),
+                new ArrayList<String>(person.keySet()));
+    }
+
+    public void testProjectionStopsEarly() throws Exception {
+        // the input after the members of the projection is not read
+        JsonReader reader = new JsonReader(new StringReader(
+                "{\"skip\":{\"a\":[1,{\"b\":2}]},\"id\":7,\"all\":{\"x\":[true]},\"rest\": ][ "));
+        JsonObject object = reader.readObject(new JsonProjection().add("id").add("all"));
+        reader.close();
+        assertEquals(2, object.size());
+        assertEquals(7, object.getInt("id"));
+        assertEquals(JsonValue.TRUE, object.getObject("all").getArray("x").get(0));
+    }
+
+    public void testProjectionMissingMembers() throws Exception {
+        JsonReader reader = new JsonReader(new StringReader("{\"a\":1,\"b\":[{\"c\":2},3,[{\"c\":4,\"d\":5}]]}"));
+        JsonObject object = reader.readObject(new JsonProjection()
+                .add("b", new JsonProjection().add("c"))
+                .add("missing"));
+        reader.close();
+        JsonArray b = object.getArray("b");
+        assertEquals(1, object.size());
+        assertEquals(1, b.getObject(0).size());
+        assertEquals(3, b.getInt(1));
+        assertEquals(4, b.getArray(2).getObject(0).getInt("c"));
+        assertEquals(1, b.getArray(2).getObject(0).size());
+    }
+
+    public void testProjectionFeedParser() throws Exception {
+        JsonFeedParser parser = Json.createParserFactory().createFeedParser();
+        byte[] bytes = "{\"a\":{\"x\":[1]},\"b\":2,\"c\":[3]}".getBytes("UTF-8");
+        parser.feed(bytes, 0, bytes.length);
+        parser.endOfInput();
+        JsonObject object = new JsonReader(parser).readObject(new JsonProjection().add("b"));
+        assertEquals(1, object.size());
+        assertEquals(2, object.getInt("b"));
+    }
+
+    public void testReadFromParser() throws Exception {
+        JsonParser parser = Json.createParser(new StringReader(
+                "{\"meta\":{\"count\":2},\"data\":[1,[2]],\"end\":true}"));
+        assertEquals(JsonParser.Event.START_OBJECT, parser.next());
+        assertEquals(JsonParser.Event.KEY_NAME, parser.next());
+        JsonObject meta = new JsonReader(parser).readObject();
+        assertEquals(2, meta.getInt("count"));
+        assertEquals(JsonParser.Event.KEY_NAME, parser.next());
+        JsonStructure data = new JsonReader(parser).read();
+        assertEquals(2, ((JsonArray) data).getArray(1).getInt(0));
+        assertEquals(JsonParser.Event.KEY_NAME, parser.next());
+        assertEquals("end", parser.getString());
+        assertEquals(JsonParser.Event.VALUE_TRUE, parser.next());
+        assertEquals(JsonParser.Event.END_OBJECT, parser.next());
+        parser.close();
+    }
+
+    public void testDeepNesting() throws Exception {
+        // deeper than the thread stack allows for recursive reading
+        int depth = 200000;
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            sb.append(i % 2 == 0 ? "[" : "{\"a\":");
+        }
+        sb.append("null");
+        for (int i = depth - 1; i >= 0; i--) {
+            sb.append(i % 2 == 0 ? "]" : "}");
+        }
+        JsonReader reader = new JsonReader(new StringReader(sb.toString()));
+        JsonArray array = reader.readArray();
+        reader.close();
+        assertEquals(1, array.size());
+        assertEquals(1, array.getObject(0).size());
+    }
+
     public void testUnknownFeature() throws Exception {
         Map<String, Object> config = new HashMap<String, Object>();
         config.put("foo", true);
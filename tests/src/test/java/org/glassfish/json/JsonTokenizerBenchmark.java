@@ -0,0 +1,154 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+
+/**
+ * Compares the throughput of the block-buffered tokenizer with the one that
+ * reads a char at a time from the Reader, with the one that works on
+ * UTF-8 bytes directly, and with the one that walks a structural index
+ * (the time includes building the index). It is not run as part of the
+ * tests, and can be run as:
+ *
+ * <pre>
+ * java -cp ... org.glassfish.json.JsonTokenizerBenchmark
+ * </pre>
+ *
+ * @author Jitendra Kotamraju
+ */
+public class JsonTokenizerBenchmark {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    public static void main(String... args) throws Exception {
+        for (int size : new int[] {50*1024, 500*1024}) {
+            byte[] json = payload(size).getBytes(UTF_8);
+            int iterations = 50*1024*1024/json.length;
+
+            // warm up all modes
+            run(json, false, iterations);
+            run(json, true, iterations);
+            runUtf8(json, iterations);
+            runIndexed(json, iterations);
+
+            long direct = run(json, false, iterations);
+            long buffered = run(json, true, iterations);
+            long utf8 = runUtf8(json, iterations);
+            long indexed = runIndexed(json, iterations);
+            System.out.printf("%4d KB: direct %6.1f MB/s, buffered %6.1f MB/s (%.2fx), "
+                    + "utf-8 %6.1f MB/s (%.2fx), indexed %6.1f MB/s (%.2fx)%n",
+                    json.length/1024,
+                    mbPerSec(json.length, iterations, direct),
+                    mbPerSec(json.length, iterations, buffered),
+                    (double) direct / buffered,
+                    mbPerSec(json.length, iterations, utf8),
+                    (double) direct / utf8,
+                    mbPerSec(json.length, iterations, indexed),
+                    (double) direct / indexed);
+        }
+    }
+
+    // Returns the time taken to tokenize the json the given number of times
+    static long run(byte[] json, boolean buffered, int iterations) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            Reader reader = new InputStreamReader(new ByteArrayInputStream(json), UTF_8);
+            tokenize(new JsonTokenizer(reader, buffered));
+        }
+        return System.nanoTime() - start;
+    }
+
+    static long runUtf8(byte[] json, int iterations) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            tokenize(new JsonTokenizer(new ByteArrayInputStream(json)));
+        }
+        return System.nanoTime() - start;
+    }
+
+    static long runIndexed(byte[] json, int iterations) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            ByteArrayInputStream in = new ByteArrayInputStream(json);
+            tokenize(new JsonTokenizer(in, JsonStructuralIndex.read(in)));
+        }
+        return System.nanoTime() - start;
+    }
+
+    static void tokenize(JsonTokenizer tokenizer) throws Exception {
+        int tokens = 0;
+        JsonTokenizer.JsonToken token;
+        while ((token = tokenizer.nextToken()) != JsonTokenizer.JsonToken.EOF) {
+            if (token == JsonTokenizer.JsonToken.STRING || token == JsonTokenizer.JsonToken.NUMBER) {
+                tokens += tokenizer.getValue().length();
+            }
+        }
+        tokenizer.close();
+        if (tokens == 0) {
+            throw new AssertionError();
+        }
+    }
+
+    static double mbPerSec(int length, int iterations, long nanos) {
+        return (double) length * iterations / (1024*1024) / (nanos / 1e9);
+    }
+
+    // An array of records similar to a typical REST API response
+    static String payload(int size) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; sb.length() < size; i++) {
+            if (i != 0) {
+                sb.append(',');
+            }
+            sb.append("{\"id\":").append(1000000 + i)
+                    .append(",\"name\":\"user").append(i).append("\"")
+                    .append(",\"active\":").append(i % 2 == 0)
+                    .append(",\"score\":").append(i * 0.25)
+                    .append(",\"text\":\"Lorem ipsum dolor sit amet, \\\"consectetur\\\" adipiscing elit\"")
+                    .append(",\"tags\":[\"a\",\"b\",null]}");
+        }
+        return sb.append("]").toString();
+    }
+
+}
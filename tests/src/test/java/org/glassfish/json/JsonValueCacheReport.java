@@ -0,0 +1,148 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * https://glassfish.dev.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+
+package org.glassfish.json;
+
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import java.io.StringReader;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Reports how often the string and number values of a document share an
+ * instance, and the retained heap of the document, when it is read with
+ * and without the table of string values. The records repeat enum-like
+ * strings and small integers as in typical service payloads. The shared
+ * numbers come from the cache of small integers, which is always used,
+ * an int number takes 16 bytes on a 64-bit VM. It is not run as part of
+ * the tests, and can be run as:
+ *
+ * <pre>
+ * java -cp ... org.glassfish.json.JsonValueCacheReport
+ * </pre>
+ *
+ * @author Jitendra Kotamraju
+ */
+public class JsonValueCacheReport {
+    private static final int RECORDS = 100000;
+    private static final String[] STATUS = { "active", "inactive", "pending" };
+    private static final String[] CURRENCY = { "USD", "EUR", "GBP", "JPY" };
+    private static final String[] COUNTRY = {
+            "US", "DE", "FR", "GB", "JP", "IN", "BR", "CA", "IT", "ES"
+    };
+    private static final int[] CODE = { 200, 201, 404, 500 };
+
+    // keeps the measured document reachable
+    static JsonArray document;
+
+    public static void main(String... args) {
+        String json = createDocument();
+        long without = report("without value table", json, 0);
+        long with = report("with value table   ", json, 512);
+        System.out.printf("value table saves %.1f bytes/record%n", (double) (without - with) / RECORDS);
+    }
+
+    private static long report(String name, String json, int valueTableSize) {
+        Map<String, Object> config = new HashMap<String, Object>();
+        config.put(JsonParserFactoryImpl.VALUE_TABLE_SIZE, valueTableSize);
+        document = null;
+        long before = usedMemory();
+        JsonReader reader = new JsonReader(new StringReader(json), config);
+        document = reader.readArray();
+        reader.close();
+        long retained = usedMemory() - before;
+
+        Map<JsonValue, Boolean> strings = new IdentityHashMap<JsonValue, Boolean>();
+        Map<JsonValue, Boolean> numbers = new IdentityHashMap<JsonValue, Boolean>();
+        int stringCount = 0;
+        int numberCount = 0;
+        for (JsonValue record : document) {
+            for (JsonValue value : ((JsonObject) record).values()) {
+                if (value instanceof JsonString) {
+                    strings.put(value, true);
+                    stringCount++;
+                } else if (value instanceof JsonNumber) {
+                    numbers.put(value, true);
+                    numberCount++;
+                }
+            }
+        }
+        int sharedNumbers = numberCount - numbers.size();
+        System.out.printf("%s: strings %4.1f%% shared, numbers %4.1f%% shared"
+                + " (saves about %d bytes/record), %.1f bytes/record%n",
+                name, 100.0 * (stringCount - strings.size()) / stringCount,
+                100.0 * sharedNumbers / numberCount, 16L * sharedNumbers / RECORDS,
+                (double) retained / RECORDS);
+        return retained;
+    }
+
+    private static String createDocument() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < RECORDS; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"id\":").append(100000 + i)
+                    .append(",\"name\":\"user").append(i)
+                    .append("\",\"status\":\"").append(STATUS[i % STATUS.length])
+                    .append("\",\"currency\":\"").append(CURRENCY[i % CURRENCY.length])
+                    .append("\",\"country\":\"").append(COUNTRY[i % COUNTRY.length])
+                    .append("\",\"code\":").append(CODE[i % CODE.length])
+                    .append(",\"quantity\":").append(i % 10)
+                    .append("}");
+        }
+        return sb.append("]").toString();
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+}